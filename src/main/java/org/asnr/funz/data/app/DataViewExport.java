@@ -0,0 +1,177 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.app;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import org.asnr.funz.data.export.ExportFormat;
+import org.asnr.funz.data.export.ResultsExporter;
+import org.asnr.funz.data.model.CaseResults;
+import org.asnr.funz.data.model.DiscreteCaseResults;
+import org.asnr.funz.data.model.ResultModel;
+import org.asnr.funz.data.model.impl.DefaultResultModel;
+import org.asnr.funz.model.ExtendedProject;
+import org.funz.Project;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Headless entry point exporting the results of a project to a file, without starting the JavaFX toolkit:<br>
+ * <code>DataViewExport [--format csv|xlsx|npz] [--outputs output1,output2] projectFolder exportFile</code><br>
+ * By default, the format is given by the extension of the export file and all the outputs are exported.
+ *
+ * @author Arnaud Trouche - Artenum SARL
+ */
+public final class DataViewExport {
+
+    private static final Logger log = LoggerFactory.getLogger(DataViewExport.class);
+
+    private static final String USAGE = "Usage: DataViewExport [--format csv|xlsx|npz] [--outputs output1,output2] "
+            + "projectFolder exportFile";
+
+    private static final int EXIT_FAILURE = 1;
+
+    private static final int EXIT_USAGE = 2;
+
+    /**
+     * Number of percents between two progress logs.
+     */
+    private static final int PROGRESS_LOG_STEP = 10;
+
+    private DataViewExport() {
+        // Entry point only
+    }
+
+    /**
+     * @param args
+     *         the options, the project folder and the export file
+     */
+    public static void main(final String[] args) {
+        System.exit(DataViewExport.run(args));
+    }
+
+    /**
+     * Runs the export.
+     *
+     * @param args
+     *         the options, the project folder and the export file
+     * @return the exit code of the process
+     */
+    static int run(final String[] args) {
+        String formatName = null;
+        List<String> selectedOutputs = null;
+        final List<String> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+            case "--format" -> {
+                if (++i >= args.length) {
+                    return DataViewExport.usage("Missing value for --format");
+                }
+                formatName = args[i];
+            }
+            case "--outputs" -> {
+                if (++i >= args.length) {
+                    return DataViewExport.usage("Missing value for --outputs");
+                }
+                selectedOutputs = Arrays.stream(args[i].split(",")).map(String::trim).filter(s -> !s.isEmpty())
+                        .toList();
+            }
+            default -> files.add(args[i]);
+            }
+        }
+        if (files.size() != 2) {
+            return DataViewExport.usage("Expected a project folder and an export file");
+        }
+
+        final File projectFolder = new File(files.get(0));
+        final File exportFile = new File(files.get(1));
+        final String extension = formatName != null ? formatName : DataViewExport.getExtension(exportFile);
+        final Optional<ExportFormat> format = ExportFormat.fromExtension(extension);
+        if (format.isEmpty()) {
+            return DataViewExport.usage("Unsupported file format: " + extension);
+        }
+
+        try {
+            final ExtendedProject project = DataViewMain.readProject(projectFolder);
+            final ResultModel resultModel = project.getResultModel();
+            if (resultModel instanceof final DefaultResultModel defaultModel) {
+                defaultModel.awaitRefreshes();
+            }
+
+            final List<String> allOutputs = Arrays.asList(project.getSyncOutputNames());
+            final List<String> outputs;
+            if (selectedOutputs == null) {
+                outputs = allOutputs;
+            } else {
+                for (final String output : selectedOutputs) {
+                    if (!allOutputs.contains(output)) {
+                        return DataViewExport.usage("Unknown output '" + output + "', available: " + allOutputs);
+                    }
+                }
+                outputs = selectedOutputs;
+            }
+
+            // Same columns as the table: no variable column for a single run
+            final List<String> variables = resultModel.getVariables().stream().sorted().toList();
+            final List<String> exportedVariables;
+            if (variables.size() == 1 && variables.getFirst().equals(Project.SINGLE_PARAM_NAME)) {
+                exportedVariables = List.of();
+            } else {
+                exportedVariables = variables;
+            }
+
+            final List<DiscreteCaseResults> results = resultModel.getDiscreteResults().stream()
+                    .sorted(Comparator.comparingInt(r -> r.getCase().getIndex())).toList();
+            final ResultsExporter exporter = new ResultsExporter(results, exportedVariables, outputs,
+                    CaseResults::getResult);
+
+            DataViewExport.log.info("Exporting {} cases of '{}' to '{}'", results.size(), projectFolder, exportFile);
+            final int[] loggedPercent = { 0 };
+            exporter.export(exportFile, format.get(), fraction -> {
+                final int percent = (int) (fraction * 100);
+                if (percent >= loggedPercent[0] + DataViewExport.PROGRESS_LOG_STEP) {
+                    loggedPercent[0] = percent;
+                    DataViewExport.log.info("Export {}%", percent);
+                }
+            }, () -> false);
+            DataViewExport.log.info("Export done: '{}'", exportFile);
+            return 0;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            DataViewExport.log.error("Export interrupted", e);
+            return DataViewExport.EXIT_FAILURE;
+        } catch (final Exception e) {
+            DataViewExport.log.error("Unable to export '{}': {}", projectFolder, e.getMessage(), e);
+            return DataViewExport.EXIT_FAILURE;
+        }
+    }
+
+    private static String getExtension(final File file) {
+        final String name = file.getName();
+        final int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1);
+    }
+
+    private static int usage(final String message) {
+        System.err.println(message);
+        System.err.println(DataViewExport.USAGE);
+        return DataViewExport.EXIT_USAGE;
+    }
+}
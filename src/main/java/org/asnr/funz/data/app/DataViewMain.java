@@ -18,6 +18,8 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ResourceBundle;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleConsumer;
 
 import org.asnr.funz.data.controller.ResultsController;
 import org.asnr.funz.data.i18n.ResultsDictionary;
@@ -33,13 +35,20 @@ import com.artenum.tk.ui.util.FxHelper;
 import com.artenum.tk.ui.util.OsgiFxmlLoader;
 
 import javafx.application.Application;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.SplitMenuButton;
 import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
 import javafx.stage.DirectoryChooser;
 import javafx.stage.Stage;
 
@@ -71,6 +80,21 @@ public final class DataViewMain extends Application implements Initializable {
     @FXML
     private BorderPane pane;
 
+    /**
+     * The task loading the results of the current project.
+     */
+    private Task<Void> loadingTask;
+
+    /**
+     * The current project, {@code null} if none.
+     */
+    private ExtendedProject project;
+
+    /**
+     * The controller of the current project, {@code null} if none.
+     */
+    private ResultsController resultsController;
+
     /**
      * Default constructor.
      */
@@ -99,6 +123,11 @@ public final class DataViewMain extends Application implements Initializable {
         }
     }
 
+    @Override
+    public void stop() {
+        this.closeProject();
+    }
+
     @Override
     public void initialize(final URL location, final ResourceBundle resources) {
         // Setup button
@@ -123,34 +152,149 @@ public final class DataViewMain extends Application implements Initializable {
     private void loadProject(final File projectFolder) {
         final ExtendedProject readProject;
         try {
-            readProject = DataViewMain.readProject(projectFolder);
+            readProject = DataViewMain.createProject(projectFolder);
         } catch (final Exception e) {
             Alerts.showAlert(FxHelper.getWindow(this.pane), Alert.AlertType.ERROR, e.toString());
             return;
         }
         this.filesManager.addFile(projectFolder);
 
+        // Stop loading and release the previous project, if any
+        this.closeProject();
+
         // Create the result controller
         final ResultsController controller = new ResultsController(readProject);
+        this.project = readProject;
+        this.resultsController = controller;
 
-        // Display
+        // Display, the cases will appear while they are loaded
         this.pane.setCenter(controller.view());
+
+        // Load the results in background
+        final Task<Void> task = new Task<>() {
+            @Override
+            protected Void call() throws Exception {
+                DataViewMain.loadResults(readProject, fraction -> this.updateProgress(fraction, 1d),
+                        this::isCancelled);
+                return null;
+            }
+        };
+        this.loadingTask = task;
+        this.showLoadingProgress(task);
+
+        final Thread loadingThread = new Thread(task, "FunzDataView-cases-loader");
+        loadingThread.setDaemon(true);
+        loadingThread.start();
     }
 
-    private static ExtendedProject readProject(final File projectFolder) throws Exception {
+    /**
+     * Stops loading the current project, if any, then releases it and its controller.
+     */
+    private void closeProject() {
+        if (this.loadingTask != null) {
+            this.loadingTask.cancel(false);
+            this.loadingTask = null;
+        }
+        if (this.resultsController != null) {
+            this.resultsController.dispose();
+            this.resultsController = null;
+        }
+        if (this.project != null) {
+            this.project.dispose();
+            this.project = null;
+        }
+    }
+
+    /**
+     * Displays the progress of the given loading task, with a button to cancel it.
+     *
+     * @param task
+     *         the loading task
+     */
+    private void showLoadingProgress(final Task<Void> task) {
+        final ProgressBar progressBar = new ProgressBar();
+        progressBar.progressProperty().bind(task.progressProperty());
+
+        // Do not interrupt the thread: the loading stops by itself, keeping the cases already loaded
+        final Button cancelButton = new Button(ResultsDictionary.CANCEL.getString());
+        cancelButton.setOnAction(e -> task.cancel(false));
+
+        final HBox progressBox = new HBox(5, new Label(ResultsDictionary.LOADING_CASES.getString()), progressBar,
+                cancelButton);
+        progressBox.setAlignment(Pos.CENTER_RIGHT);
+        progressBox.setPadding(new Insets(5));
+        this.pane.setBottom(progressBox);
+
+        final Runnable hideProgress = () -> {
+            if (this.pane.getBottom() == progressBox) {
+                this.pane.setBottom(null);
+            }
+        };
+        task.setOnSucceeded(e -> hideProgress.run());
+        task.setOnCancelled(e -> hideProgress.run());
+        task.setOnFailed(e -> {
+            hideProgress.run();
+            Alerts.showAlert(FxHelper.getWindow(this.pane), Alert.AlertType.ERROR, task.getException().toString());
+        });
+    }
+
+    /**
+     * Reads the project of the given folder with all its results, in the calling thread. It does not need the JavaFX
+     * toolkit, so that it can be used for headless exports.
+     *
+     * @param projectFolder
+     *         the project folder
+     * @return the read project
+     * @throws Exception
+     *         if unable to read the project or its results
+     */
+    static ExtendedProject readProject(final File projectFolder) throws Exception {
+        final ExtendedProject prj = DataViewMain.createProject(projectFolder);
+        prj.setListenersExecutor(Runnable::run);
+        DataViewMain.loadResults(prj, fraction -> {
+            // No progress to show
+        }, () -> false);
+        return prj;
+    }
+
+    /**
+     * Creates the project from its folder, without loading its results.
+     *
+     * @param projectFolder
+     *         the project folder
+     * @return the created project
+     * @throws IOException
+     *         if the folder is not a project folder
+     */
+    private static ExtendedProject createProject(final File projectFolder) throws IOException {
         final File projectFile = DataViewMain.getProjectXmlFile(projectFolder);
 
         final ExtendedProject prj = new ExtendedProject(projectFile);
         prj.autoSelectOutputFunction();
+        return prj;
+    }
 
+    /**
+     * Loads the design sessions and the cases of the given project.
+     *
+     * @param prj
+     *         the project
+     * @param progress
+     *         notified with the fraction of the cases already loaded
+     * @param cancelled
+     *         when it returns {@code true}, loading stops and only the cases already loaded are kept
+     * @throws Exception
+     *         if unable to load the results
+     */
+    private static void loadResults(final ExtendedProject prj, final DoubleConsumer progress,
+            final BooleanSupplier cancelled) throws Exception {
         if (!prj.getDesignerId().equals(DesignConstants.NODESIGNER_ID)) {
             prj.loadDesignSessions();
         }
-        prj.loadCases();
+        prj.loadCases(progress, cancelled);
         if ((prj.getCases() != null) && !prj.getCases().isEmpty()) {
             prj.fireResultsSet();
         }
-        return prj;
     }
 
     private static File getProjectXmlFile(final File dir) throws IOException {
@@ -18,14 +18,19 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntFunction;
 
 import org.asnr.funz.data.dataminer.DataMiner;
 import org.asnr.funz.data.dataminer.WebViewDataMiner;
 import org.asnr.funz.data.i18n.ResultsDictionary;
 import org.asnr.funz.data.model.CaseResults;
+import org.asnr.funz.data.view.ColumnarPayloadBuilder;
 import org.asnr.funz.data.view.HtmlVariablesUtils;
+import org.asnr.funz.data.view.TemplateRegistry;
 import org.asnr.funz.model.ExtendedProject;
 import org.funz.parameter.Case;
 import org.funz.util.Data;
@@ -64,6 +69,16 @@ abstract class AbstractDataMinerController extends AbstractDynamicUpdateControll
      */
     private final List<WebViewDataMiner> webDataMiners;
 
+    /**
+     * Applies the changes of the templates to the data miners, registered as long as this controller exists.
+     */
+    private final TemplateRegistry.TemplateListener templateListener;
+
+    /**
+     * Builds the columnar payload of the HTML views, reusing its buffers between refreshes.
+     */
+    private final ColumnarPayloadBuilder payloadBuilder;
+
     private final TabPane tabs;
 
     /**
@@ -79,6 +94,9 @@ abstract class AbstractDataMinerController extends AbstractDynamicUpdateControll
         this.templateDirectory = location.getFolder();
         this.dataMinerWrappers = new ArrayList<>();
         this.webDataMiners = new ArrayList<>();
+        this.payloadBuilder = new ColumnarPayloadBuilder();
+        this.templateListener = this::templateChanged;
+        TemplateRegistry.getShared().addTemplateListener(this.templateListener);
 
         this.tabs = new TabPane();
         this.tabs.setTabClosingPolicy(TabClosingPolicy.UNAVAILABLE);
@@ -98,6 +116,9 @@ abstract class AbstractDataMinerController extends AbstractDynamicUpdateControll
                 this.refresh(true);
             }
         });
+
+        // Display the cases page by page while they are loaded
+        this.project.addCasesLoadedListener((modifiedProject, loadedCases) -> this.refresh(false));
     }
 
     /**
@@ -189,6 +210,16 @@ abstract class AbstractDataMinerController extends AbstractDynamicUpdateControll
         return this.dataMinerWrappers;
     }
 
+    /**
+     * Releases the {@link DataMiner}s, once the project is closed.
+     */
+    void dispose() {
+        TemplateRegistry.getShared().removeTemplateListener(this.templateListener);
+        for (final DataMinerWrapperController wrapper : this.dataMinerWrappers) {
+            wrapper.getDataMiner().dispose();
+        }
+    }
+
     /**
      * Clear all {@link DataMiner}s.
      */
@@ -199,20 +230,53 @@ abstract class AbstractDataMinerController extends AbstractDynamicUpdateControll
     }
 
     private void updateHtmlDataMiners() {
-        if (this.webDataMiners.isEmpty() && this.templateDirectory != null) {
-            final File[] htmlFiles = this.templateDirectory.listFiles((dir, name) -> name.endsWith("html"));
-
-            if (htmlFiles != null) {
-                for (final File template : htmlFiles) {
-                    final WebViewDataMiner dataMiner = new WebViewDataMiner(this.getProject(), template,
-                            this::getParameters, this::getValuesAsString);
-                    this.webDataMiners.add(dataMiner);
-                    this.addDataMiner(dataMiner);
+        synchronized (this.webDataMiners) {
+            if (this.webDataMiners.isEmpty()) {
+                for (final File template : TemplateRegistry.getShared().getTemplateFiles(this.templateDirectory)) {
+                    this.addHtmlDataMiner(template);
                 }
             }
         }
     }
 
+    private void addHtmlDataMiner(final File template) {
+        final WebViewDataMiner dataMiner = new WebViewDataMiner(this.getProject(), template, this::getParameters,
+                this::getValuesAsString, this::getColumnarData, this.getRowsSupplier());
+        this.webDataMiners.add(dataMiner);
+        this.addDataMiner(dataMiner);
+    }
+
+    /**
+     * Called in the templates watching thread when an HTML template changes: reloads, adds or removes its data
+     * miner.
+     */
+    private void templateChanged(final File template) {
+        if (this.templateDirectory == null || !this.templateDirectory.getAbsoluteFile()
+                .equals(template.getParentFile())) {
+            return;
+        }
+        Platform.runLater(() -> {
+            synchronized (this.webDataMiners) {
+                if (this.webDataMiners.isEmpty()) {
+                    // Not displayed yet: the current templates are loaded when shown
+                    return;
+                }
+                final WebViewDataMiner dataMiner = this.webDataMiners.stream()
+                        .filter(d -> d.getTemplateFile().equals(template)).findFirst().orElse(null);
+                final boolean exists = template.isFile();
+                if (dataMiner != null && exists) {
+                    dataMiner.reloadTemplate();
+                } else if (dataMiner != null) {
+                    this.webDataMiners.remove(dataMiner);
+                    this.removeDataMiner(dataMiner);
+                    dataMiner.dispose();
+                } else if (exists) {
+                    this.addHtmlDataMiner(template);
+                }
+            }
+        });
+    }
+
     /**
      * @return the list of parameters applicable for this data miner
      */
@@ -223,6 +287,42 @@ abstract class AbstractDataMinerController extends AbstractDynamicUpdateControll
      */
     protected abstract String getValuesAsString();
 
+    /**
+     * @return the parameters and the output values as typed columns, see {@link ColumnarPayloadBuilder}
+     */
+    protected abstract String getColumnarData();
+
+    /**
+     * @param variables
+     *         the variables to use
+     * @param cases
+     *         the cases to use
+     * @param outputs
+     *         the values of the outputs to use for a case, by output name
+     * @return the columnar payload of the parameters and values
+     */
+    protected final String getColumnarData(final Collection<String> variables, final List<? extends CaseResults> cases,
+            final Map<String, Function<CaseResults, Object>> outputs) {
+        final Map<String, IntFunction<Object>> parameters = new LinkedHashMap<>();
+        for (final String variableName : variables) {
+            parameters.put(variableName, index -> cases.get(index).getValueForVariable(variableName));
+        }
+        final Map<String, IntFunction<Object>> values = new LinkedHashMap<>();
+        for (final Map.Entry<String, Function<CaseResults, Object>> output : outputs.entrySet()) {
+            values.put(output.getKey(), index -> output.getValue().apply(cases.get(index)));
+        }
+        return this.payloadBuilder.build(cases.size(), parameters, values);
+    }
+
+    /**
+     * @return the function giving the JSON array of the rows of the given discrete cases, pushed to the HTML views
+     *         when these cases change (the function returning {@code null} to reload them instead), or {@code null}
+     *         if the HTML views are always fully refreshed
+     */
+    protected Function<Collection<Integer>, String> getRowsSupplier() {
+        return null;
+    }
+
     /**
      * @param variables
      *         the variables to use
@@ -255,6 +355,10 @@ abstract class AbstractDataMinerController extends AbstractDynamicUpdateControll
         return Data.asString(parameters);
     }
 
+    /**
+     * Legacy rule of the {@code $$X$$} parameters, kept as is for the existing templates: any text accepted by
+     * {@link Double#parseDouble(String)}.
+     */
     private static boolean isNumeric(final String strNum) {
         if (strNum == null) {
             return false;
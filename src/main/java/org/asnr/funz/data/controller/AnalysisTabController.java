@@ -18,8 +18,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 import org.asnr.funz.data.dataminer.DataMiner;
 import org.asnr.funz.data.dataminer.TableDoeDataMiner;
@@ -106,4 +108,23 @@ final class AnalysisTabController extends AbstractDataMinerController {
         return Data.asString(results);
     }
 
+    @Override
+    protected String getColumnarData() {
+        final ResultModel resultModel = this.getProject().getResultModel();
+        Collection<String> variables = resultModel.getDiscreteVariables();
+        if (variables.contains(Project.SINGLE_PARAM_NAME)) {
+            variables = Collections.emptyList();
+        }
+        final List<CaseResults> cases = new ArrayList<>(resultModel.getDoeResults());
+
+        final Map<String, Function<CaseResults, Object>> outputs = new LinkedHashMap<>();
+        for (final String outputName : resultModel.getDoeOutputs()) {
+            if (!outputName.contains(" name=\"")) {
+                outputs.put(outputName, r -> r.getStringResult(outputName));
+            }
+        }
+
+        return this.getColumnarData(variables, cases, outputs);
+    }
+
 }
@@ -17,13 +17,20 @@ package org.asnr.funz.data.controller;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 import org.asnr.funz.data.dataminer.TableDataMiner;
 import org.asnr.funz.data.model.CaseResults;
+import org.asnr.funz.data.model.DiscreteCaseResults;
 import org.asnr.funz.data.model.ResultModel;
+import org.asnr.funz.data.view.ColumnarPayloadBuilder;
 import org.asnr.funz.data.view.HtmlVariablesUtils;
+import org.asnr.funz.data.view.JsonUtils;
 import org.asnr.funz.model.ExtendedProject;
 import org.funz.util.Data;
 
@@ -36,6 +43,11 @@ final class DataTabController extends AbstractDataMinerController {
 
     private final TableDataMiner tableDataMiner;
 
+    /**
+     * The outputs sent by the last {@link #getColumnarData()}, the only ones pushed with the rows.
+     */
+    private volatile Set<String> numericOutputs = Set.of();
+
     /**
      * Creates a {@link DataTabController} for the given {@link ExtendedProject}.
      *
@@ -77,6 +89,107 @@ final class DataTabController extends AbstractDataMinerController {
         return Data.asString(results);
     }
 
+    /**
+     * Only the numeric outputs are sent: the ones whose results are all numbers or missing (pending cases), with at
+     * least one number.
+     */
+    @Override
+    protected String getColumnarData() {
+        final ResultModel resultModel = this.getProject().getResultModel();
+        final List<CaseResults> cases = new ArrayList<>(resultModel.getDiscreteResults());
+
+        final Map<String, Function<CaseResults, Object>> outputs = new LinkedHashMap<>();
+        for (final String outputName : this.getProject().getSyncOutputNames()) {
+            if (DataTabController.isNumericOutput(cases, outputName)) {
+                outputs.put(outputName, r -> r.getResult(outputName));
+            }
+        }
+        this.numericOutputs = Set.copyOf(outputs.keySet());
+
+        return this.getColumnarData(resultModel.getVariables(), cases, outputs);
+    }
+
+    private static boolean isNumericOutput(final List<CaseResults> cases, final String outputName) {
+        boolean number = false;
+        for (final CaseResults result : cases) {
+            final Object value = result.getResult(outputName);
+            if (value instanceof Double) {
+                number = true;
+            } else if (!CaseResults.isMissing(value)) {
+                return false;
+            }
+        }
+        return number;
+    }
+
+    @Override
+    protected Function<Collection<Integer>, String> getRowsSupplier() {
+        return this::getRowsAsJson;
+    }
+
+    /**
+     * Each row is <code>{"index": 3, "x": {"variable": value, ...}, "y": {"output": number, ...}}</code>, with the
+     * same values as {@link #getColumnarData()}: numeric variables as numbers, and the numeric outputs of the last
+     * payload, {@code null} when missing.
+     *
+     * @return {@code null} if a row does not fit the outputs of the last payload (an output got its first number, or
+     *         a text), the view being then reloaded
+     */
+    private String getRowsAsJson(final Collection<Integer> indices) {
+        final ResultModel resultModel = this.getProject().getResultModel();
+        final Collection<String> variables = resultModel.getVariables();
+        final String[] outputNames = this.getProject().getSyncOutputNames();
+        final Set<String> sentOutputs = this.numericOutputs;
+
+        final StringBuilder json = new StringBuilder("[");
+        for (final Integer index : indices) {
+            final Optional<DiscreteCaseResults> result = resultModel.getDiscreteResult(index);
+            if (result.isEmpty()) {
+                continue;
+            }
+            final Map<String, Object> parameters = new LinkedHashMap<>();
+            for (final String variableName : variables) {
+                final String value = result.get().getValueForVariable(variableName);
+                parameters.put(variableName, DataTabController.toNumberIfNumeric(value));
+            }
+            final Map<String, Object> values = new LinkedHashMap<>();
+            for (final String outputName : outputNames) {
+                final Object value = result.get().getResult(outputName);
+                if (!sentOutputs.contains(outputName)) {
+                    if (value instanceof Double) {
+                        // First number of the output
+                        return null;
+                    }
+                } else if (CaseResults.isMissing(value)) {
+                    values.put(outputName, null);
+                } else if (value instanceof Double) {
+                    values.put(outputName, value);
+                } else {
+                    return null;
+                }
+            }
+
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append("{\"index\":").append(index).append(",\"x\":");
+            JsonUtils.appendValue(json, parameters).append(",\"y\":");
+            JsonUtils.appendValue(json, values).append('}');
+        }
+        return json.append(']').toString();
+    }
+
+    /**
+     * Same rule as the columnar payload, see {@link ColumnarPayloadBuilder#isNumeric(String)}, a missing value being
+     * {@code null}.
+     */
+    private static Object toNumberIfNumeric(final String value) {
+        if (CaseResults.isMissing(value)) {
+            return null;
+        }
+        return ColumnarPayloadBuilder.isNumeric(value) ? Double.parseDouble(value) : value;
+    }
+
     /**
      * Set output data to display by default (checkbox to select by default in views)
      */
@@ -0,0 +1,248 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.controller;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.asnr.funz.model.ExtendedProject;
+
+/**
+ * Searches a text in the content of all the files of a directory tree. The files are scanned in parallel on a
+ * {@link ForkJoinPool}, each one through memory-mapped windows, the text being searched as UTF-8 bytes. Binary files
+ * are skipped.
+ *
+ * @author Arnaud Trouche - Artenum SARL
+ */
+final class FileContentSearch implements AutoCloseable {
+
+    /**
+     * Size of the memory-mapped windows of a file.
+     */
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+
+    /**
+     * Number of first bytes checked for a NUL byte to detect binary files.
+     */
+    private static final int BINARY_CHECK_LENGTH = 8000;
+
+    /**
+     * Maximal number of characters kept from a line with a hit.
+     */
+    private static final int MAX_LINE_LENGTH = 200;
+
+    /**
+     * Order of the hits: by file path, then by line.
+     */
+    static final Comparator<Hit> HIT_ORDER = Comparator.comparing(Hit::file).thenComparingInt(Hit::line);
+
+    /**
+     * A line containing the searched text.
+     *
+     * @param file
+     *         the file
+     * @param line
+     *         the line number, from 1
+     * @param text
+     *         the text of the line, possibly truncated
+     */
+    record Hit(File file, int line, String text) {
+    }
+
+    private final ForkJoinPool pool;
+
+    /**
+     * @param parallelism
+     *         the number of files scanned at the same time
+     */
+    FileContentSearch(final int parallelism) {
+        this.pool = new ForkJoinPool(Math.max(1, parallelism));
+    }
+
+    /**
+     * Searches the given text in all the files under the given directory.
+     *
+     * @param root
+     *         the directory
+     * @param text
+     *         the text to search, case sensitive
+     * @param maxHits
+     *         the maximal number of hits, the search stopping once reached
+     * @param hitsConsumer
+     *         called with the hits of each file containing the text, from the scanning threads
+     * @param cancelled
+     *         checked before each file: when it returns {@code true}, the search stops
+     * @return all the hits, sorted by file and line
+     * @throws IOException
+     *         if unable to list the files
+     */
+    List<Hit> search(final File root, final String text, final int maxHits, final Consumer<List<Hit>> hitsConsumer,
+            final BooleanSupplier cancelled) throws IOException {
+        final List<File> files;
+        try (final Stream<Path> paths = Files.walk(root.toPath())) {
+            files = paths.filter(Files::isRegularFile).map(Path::toFile)
+                    .filter(file -> !ExtendedProject.isInternalResultsFile(file)).toList();
+        }
+
+        final byte[] pattern = text.getBytes(StandardCharsets.UTF_8);
+        final AtomicInteger remainingHits = new AtomicInteger(maxHits);
+        final List<Hit> hits = this.pool.submit(() -> files.parallelStream().flatMap(file -> {
+            if (cancelled.getAsBoolean() || remainingHits.get() <= 0) {
+                return Stream.empty();
+            }
+            try {
+                final List<Hit> fileHits = FileContentSearch.searchFile(file, pattern, remainingHits.get());
+                if (!fileHits.isEmpty()) {
+                    // Concurrent files may overtake the limit a little: trimmed below
+                    remainingHits.addAndGet(-fileHits.size());
+                    hitsConsumer.accept(fileHits);
+                }
+                return fileHits.stream();
+            } catch (final IOException e) {
+                // Deleted meanwhile or not readable: skipped
+                return Stream.empty();
+            }
+        }).sorted(FileContentSearch.HIT_ORDER).toList()).join();
+
+        return hits.size() > maxHits ? hits.subList(0, maxHits) : hits;
+    }
+
+    /**
+     * Searches the lines of a file containing the given bytes.
+     *
+     * @param file
+     *         the file
+     * @param pattern
+     *         the bytes to search, not empty
+     * @param maxHits
+     *         the maximal number of hits
+     * @return the lines containing the bytes, empty for a binary file
+     * @throws IOException
+     *         if unable to read the file
+     */
+    static List<Hit> searchFile(final File file, final byte[] pattern, final int maxHits) throws IOException {
+        return FileContentSearch.searchFile(file, pattern, maxHits, FileContentSearch.WINDOW_SIZE);
+    }
+
+    /**
+     * Searches the lines of a file containing the given bytes, with the given window size.
+     *
+     * @param file
+     *         the file
+     * @param pattern
+     *         the bytes to search, not empty
+     * @param maxHits
+     *         the maximal number of hits
+     * @param windowSize
+     *         the size of the memory-mapped windows, greater than the pattern
+     * @return the lines containing the bytes, empty for a binary file
+     * @throws IOException
+     *         if unable to read the file
+     */
+    static List<Hit> searchFile(final File file, final byte[] pattern, final int maxHits, final long windowSize)
+            throws IOException {
+        final List<Hit> hits = new ArrayList<>();
+        try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final long size = channel.size();
+            long position = 0;
+            int line = 1;
+            int lastHitLine = 0;
+            while (position < size && hits.size() < maxHits) {
+                final int length = (int) Math.min(windowSize, size - position);
+                final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                if (position == 0 && FileContentSearch.isBinary(buffer, length)) {
+                    return hits;
+                }
+
+                // In a window that is not the last one, the end is scanned again at the start of the next window
+                final boolean lastWindow = position + length >= size;
+                final int scanEnd = lastWindow ? length : length - (pattern.length - 1);
+                // A line started in the previous window is shown from the start of this one
+                int lineStart = 0;
+                for (int i = 0; i < scanEnd && hits.size() < maxHits; i++) {
+                    final byte b = buffer.get(i);
+                    if (b == '\n') {
+                        line++;
+                        lineStart = i + 1;
+                    } else if (b == pattern[0] && line != lastHitLine && FileContentSearch.matches(buffer, i, length,
+                            pattern)) {
+                        hits.add(new Hit(file, line, FileContentSearch.lineText(buffer, lineStart, length)));
+                        lastHitLine = line;
+                    }
+                }
+                position += scanEnd;
+            }
+        }
+        return hits;
+    }
+
+    private static boolean isBinary(final MappedByteBuffer buffer, final int length) {
+        final int checked = Math.min(length, FileContentSearch.BINARY_CHECK_LENGTH);
+        for (int i = 0; i < checked; i++) {
+            if (buffer.get(i) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(final MappedByteBuffer buffer, final int start, final int length,
+            final byte[] pattern) {
+        if (start + pattern.length > length) {
+            return false;
+        }
+        for (int j = 1; j < pattern.length; j++) {
+            if (buffer.get(start + j) != pattern[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the text of the line starting at the given index, up to its end or to the end of the window
+     */
+    private static String lineText(final MappedByteBuffer buffer, final int lineStart, final int length) {
+        int end = lineStart;
+        final int maxEnd = Math.min(length, lineStart + FileContentSearch.MAX_LINE_LENGTH * 4);
+        while (end < maxEnd && buffer.get(end) != '\n') {
+            end++;
+        }
+        final byte[] bytes = new byte[end - lineStart];
+        buffer.get(lineStart, bytes);
+        final String text = new String(bytes, StandardCharsets.UTF_8).strip();
+        return text.length() > FileContentSearch.MAX_LINE_LENGTH ? text.substring(0,
+                FileContentSearch.MAX_LINE_LENGTH) : text;
+    }
+
+    @Override
+    public void close() {
+        this.pool.shutdown();
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.controller;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import org.asnr.funz.model.ExtendedProject;
+
+/**
+ * Index of the names of the files of a directory tree, finding the files whose name contains a text without walking
+ * the tree. Each name is indexed by its trigrams: a query is answered by intersecting the files of its trigrams, then
+ * checking the remaining candidates. Thread-safe.
+ *
+ * @author Arnaud Trouche - Artenum SARL
+ */
+final class FileNameIndex {
+
+    private static final int GRAM_LENGTH = 3;
+
+    /**
+     * Indexed files by identifier, {@code null} once removed.
+     */
+    private final List<File> files;
+
+    /**
+     * Names of the indexed files by identifier.
+     */
+    private final List<String> names;
+
+    /**
+     * Identifiers by absolute path, sorted so that the content of a directory is a sub-map.
+     */
+    private final NavigableMap<String, Integer> idsByPath;
+
+    /**
+     * Identifiers of the files containing each trigram.
+     */
+    private final Map<Long, BitSet> filesByGram;
+
+    FileNameIndex() {
+        this.files = new ArrayList<>();
+        this.names = new ArrayList<>();
+        this.idsByPath = new TreeMap<>();
+        this.filesByGram = new HashMap<>();
+    }
+
+    /**
+     * Removes all the files.
+     */
+    synchronized void clear() {
+        this.files.clear();
+        this.names.clear();
+        this.idsByPath.clear();
+        this.filesByGram.clear();
+    }
+
+    /**
+     * Walks the given file tree and adds all its files and directories, itself included.
+     *
+     * @param root
+     *         the root of the tree
+     * @param directoryVisitor
+     *         called with each directory of the tree, in the calling thread
+     */
+    void addTree(final File root, final Consumer<File> directoryVisitor) {
+        final List<File> found = new ArrayList<>();
+        try {
+            Files.walkFileTree(root.toPath(), new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) {
+                    final File directory = dir.toFile();
+                    directoryVisitor.accept(directory);
+                    found.add(directory);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+                    if (!ExtendedProject.isInternalResultsFile(file.toFile())) {
+                        found.add(file.toFile());
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(final Path file, final IOException exc) {
+                    // Deleted meanwhile or not readable: not indexed
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        synchronized (this) {
+            for (final File file : found) {
+                this.add(file);
+            }
+        }
+    }
+
+    /**
+     * Adds a file, unless already indexed.
+     *
+     * @param file
+     *         the file
+     */
+    synchronized void add(final File file) {
+        final String path = file.getAbsolutePath();
+        if (this.idsByPath.containsKey(path)) {
+            return;
+        }
+
+        final int id = this.files.size();
+        this.files.add(file);
+        this.names.add(file.getName());
+        this.idsByPath.put(path, id);
+        final String name = file.getName();
+        for (int i = 0; i + FileNameIndex.GRAM_LENGTH <= name.length(); i++) {
+            this.filesByGram.computeIfAbsent(FileNameIndex.gram(name, i), g -> new BitSet()).set(id);
+        }
+    }
+
+    /**
+     * Removes a file and, for a directory, all its content.
+     *
+     * @param file
+     *         the file
+     */
+    synchronized void remove(final File file) {
+        final String path = file.getAbsolutePath();
+        this.remove(this.idsByPath.remove(path));
+
+        final Map<String, Integer> content = this.idsByPath.subMap(path + File.separator, true,
+                path + File.separator + Character.MAX_VALUE, true);
+        for (final Integer id : content.values()) {
+            this.remove(id);
+        }
+        content.clear();
+    }
+
+    private void remove(final Integer id) {
+        if (id != null) {
+            final String name = this.names.get(id);
+            for (int i = 0; i + FileNameIndex.GRAM_LENGTH <= name.length(); i++) {
+                final BitSet ids = this.filesByGram.get(FileNameIndex.gram(name, i));
+                if (ids != null) {
+                    ids.clear(id);
+                }
+            }
+            this.files.set(id, null);
+        }
+    }
+
+    /**
+     * @return the number of indexed files
+     */
+    synchronized int size() {
+        return this.idsByPath.size();
+    }
+
+    /**
+     * @param text
+     *         the text to search, case sensitive
+     * @return the indexed files whose name contains the text
+     */
+    synchronized List<File> search(final String text) {
+        final List<File> result = new ArrayList<>();
+        if (text.length() < FileNameIndex.GRAM_LENGTH) {
+            // Too short to be indexed: the names are scanned
+            for (int id = 0; id < this.files.size(); id++) {
+                this.addIfMatching(id, text, result);
+            }
+            return result;
+        }
+
+        BitSet candidates = null;
+        for (int i = 0; i + FileNameIndex.GRAM_LENGTH <= text.length(); i++) {
+            final BitSet ids = this.filesByGram.get(FileNameIndex.gram(text, i));
+            if (ids == null) {
+                return result;
+            }
+            if (candidates == null) {
+                candidates = (BitSet) ids.clone();
+            } else {
+                candidates.and(ids);
+            }
+        }
+        for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+            // Checked as the trigrams may be at other positions
+            this.addIfMatching(id, text, result);
+        }
+        return result;
+    }
+
+    private void addIfMatching(final int id, final String text, final List<File> result) {
+        final File file = this.files.get(id);
+        if (file != null && this.names.get(id).contains(text)) {
+            result.add(file);
+        }
+    }
+
+    private static Long gram(final String text, final int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.controller;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.asnr.funz.model.ExtendedProject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javafx.application.Platform;
+
+/**
+ * Watches the directories of the results tree and reports their changes in the JavaFX application thread, so that the
+ * file tree and its index are updated with the changes only.
+ *
+ * @author Arnaud Trouche - Artenum SARL
+ */
+final class FileTreeWatcher implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(FileTreeWatcher.class);
+
+    /**
+     * Kind of change of a file.
+     */
+    enum Change {
+        CREATED, DELETED, MODIFIED,
+        /**
+         * Some events were lost, the whole directory must be listed again.
+         */
+        OVERFLOW
+    }
+
+    /**
+     * Listener of the changes, called in the JavaFX application thread.
+     */
+    @FunctionalInterface
+    interface FileChangeListener {
+
+        /**
+         * @param directory
+         *         the directory containing the changed file
+         * @param change
+         *         the kind of change
+         * @param file
+         *         the changed file, the directory itself for {@link Change#OVERFLOW}
+         * @param fileDirectory
+         *         whether the changed file is a directory, checked in the watcher thread ({@code false} once deleted)
+         */
+        void fileChanged(File directory, Change change, File file, boolean fileDirectory);
+    }
+
+    private final WatchService watchService;
+
+    private final Map<WatchKey, File> watchedDirectories;
+
+    private final FileChangeListener listener;
+
+    /**
+     * @param listener
+     *         the listener of the changes
+     * @throws IOException
+     *         if the file system cannot be watched
+     */
+    FileTreeWatcher(final FileChangeListener listener) throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.watchedDirectories = new ConcurrentHashMap<>();
+        this.listener = listener;
+
+        Thread.ofVirtual().name("FunzDataView-files-watcher").start(this::processEvents);
+    }
+
+    /**
+     * Watches the given directory, until {@link #clear()}. Its sub-directories are not watched.
+     *
+     * @param directory
+     *         the directory
+     */
+    void watch(final File directory) {
+        try {
+            final WatchKey key = directory.toPath().register(this.watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            this.watchedDirectories.put(key, directory);
+        } catch (final IOException | ClosedWatchServiceException e) {
+            FileTreeWatcher.log.warn("Unable to watch '{}': {}", directory, e.getMessage());
+        }
+    }
+
+    /**
+     * Stops watching all the directories.
+     */
+    void clear() {
+        for (final WatchKey key : this.watchedDirectories.keySet()) {
+            key.cancel();
+        }
+        this.watchedDirectories.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.clear();
+        this.watchService.close();
+    }
+
+    private void processEvents() {
+        try {
+            while (true) {
+                final WatchKey key = this.watchService.take();
+                final File directory = this.watchedDirectories.get(key);
+                final List<WatchEvent<?>> events = key.pollEvents();
+                if (!key.reset()) {
+                    this.watchedDirectories.remove(key);
+                }
+                if (directory != null) {
+                    this.dispatch(directory, events);
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final ClosedWatchServiceException e) {
+            // Closed: nothing more to watch
+        }
+    }
+
+    /**
+     * Reports the events of a directory, in a single JavaFX pulse.
+     */
+    private void dispatch(final File directory, final List<WatchEvent<?>> events) {
+        final Path directoryPath = directory.toPath();
+        final List<Runnable> changes = new ArrayList<>(events.size());
+        for (final WatchEvent<?> event : events) {
+            final WatchEvent.Kind<?> kind = event.kind();
+            if (kind == StandardWatchEventKinds.OVERFLOW) {
+                changes.add(() -> this.listener.fileChanged(directory, Change.OVERFLOW, directory, true));
+            } else {
+                final File file = directoryPath.resolve((Path) event.context()).toFile();
+                if (ExtendedProject.isInternalResultsFile(file)) {
+                    continue;
+                }
+                final Change change;
+                if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
+                    change = Change.CREATED;
+                } else if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+                    change = Change.DELETED;
+                } else {
+                    change = Change.MODIFIED;
+                }
+                // Checked here rather than in the JavaFX application thread
+                final boolean fileDirectory = change != Change.DELETED && file.isDirectory();
+                changes.add(() -> this.listener.fileChanged(directory, change, file, fileDirectory));
+            }
+        }
+        Platform.runLater(() -> changes.forEach(Runnable::run));
+    }
+}
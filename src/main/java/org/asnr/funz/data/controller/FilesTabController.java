@@ -18,11 +18,16 @@ import java.awt.Desktop;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
-import java.util.Arrays;
+import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 import javax.swing.SwingUtilities;
 import javafx.scene.Node;
@@ -30,6 +35,8 @@ import javafx.scene.control.*;
 import org.asnr.funz.data.i18n.ResultsDictionary;
 import org.asnr.funz.data.view.HtmlFileViewer;
 import org.asnr.funz.data.view.HtmlVariablesUtils;
+import org.asnr.funz.data.view.MappedFileReader;
+import org.asnr.funz.data.view.TemplateRegistry;
 import org.asnr.funz.data.view.common.SearchBar;
 import org.asnr.funz.model.ExtendedProject;
 import org.funz.parameter.Case;
@@ -44,12 +51,13 @@ import com.artenum.tk.ui.control.tree.fx.FxTreeUtils;
 import com.artenum.tk.ui.control.tree.fx.SearchableTreeItem;
 import com.artenum.tk.ui.util.FxHelper;
 import com.artenum.tk.ui.util.OsgiFxmlLoader;
-import com.artenum.tk.web.WebViewSynchronousScriptExecutor;
 
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.concurrent.Task;
+import javafx.concurrent.Worker;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.Parent;
@@ -59,6 +67,9 @@ import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.web.WebView;
 import javafx.stage.Stage;
+import javafx.util.Duration;
+import netscape.javascript.JSException;
+import netscape.javascript.JSObject;
 
 /**
  * Controller for the result files tree and its viewer.
@@ -69,24 +80,73 @@ import javafx.stage.Stage;
 final class FilesTabController implements Initializable {
 
     private static final Logger log = LoggerFactory.getLogger(FilesTabController.class);
+    /**
+     * Maximal number of file loads running at the same time, cancelled ones included until their read ends.
+     */
+    private static final int MAX_CONCURRENT_LOADS = 2;
+    /**
+     * Delay without typing before searching the files, in milliseconds.
+     */
+    private static final double SEARCH_DELAY = 200;
+    /**
+     * Maximal number of found files whose parents are expanded.
+     */
+    private static final int MAX_EXPANDED_SEARCH_RESULTS = 200;
+    /**
+     * Maximal number of lines found by a content search.
+     */
+    private static final int MAX_CONTENT_SEARCH_HITS = 10_000;
     /**
      * Current {@link ExtendedProject}.
      */
     private final ExtendedProject project;
 
     /**
-     * Map storing the extensions directly handled by the HTML files.
+     * Displays the selected file again when its HTML template changes, registered as long as this controller exists.
      */
-    private final Map<String, HtmlFileViewer> extensionsToFileViewer;
+    private final TemplateRegistry.TemplateListener templateListener;
     /**
      * {@link SuperTextEditor} where the content of the selected file is displayed.
      */
     private final SuperTextEditor editor;
+    /**
+     * Loader of the selected file, only the latest selection being loaded.
+     */
+    private final LatestTaskExecutor fileLoader;
+    /**
+     * Executor listing the directories of the tree, on virtual threads.
+     */
+    private final ExecutorService treeListingExecutor;
+    /**
+     * Watcher applying the changes of the results directory to the tree, {@code null} if not available.
+     */
+    private final FileTreeWatcher treeWatcher;
+    /**
+     * Items of the directories whose children are loaded, by directory, accessed in the JavaFX application thread only.
+     */
+    private final Map<File, LazyFileTreeItem> loadedDirectories;
+    /**
+     * Searcher in the file names index, only the latest search being applied.
+     */
+    private final LatestTaskExecutor fileSearcher;
+    /**
+     * Index of the file names of the current tree.
+     */
+    private volatile FileNameIndex fileNameIndex;
+    /**
+     * Runner of the content searches, only the latest search being applied.
+     */
+    private final LatestTaskExecutor contentSearcher;
+    /**
+     * Scanner of the files content.
+     */
+    private final FileContentSearch contentSearch;
 
     /**
-     * Content loader for the webview.
+     * Reader of the file streamed to the webview, {@code null} if none. Referenced here since the web engine only
+     * keeps a weak reference to it.
      */
-    private WebViewSynchronousScriptExecutor webviewLoader;
+    private MappedFileReader streamedFile;
 
     @FXML
     private SplitPane splitPane;
@@ -113,6 +173,23 @@ final class FilesTabController implements Initializable {
     @FXML
     private CheckBox alwaysUpdateCheckbox;
 
+    @FXML
+    private TextField contentSearchField;
+    @FXML
+    private Label contentSearchStatus;
+    @FXML
+    private ListView<FileContentSearch.Hit> contentSearchResults;
+
+    /**
+     * Search bar of the text editor.
+     */
+    private SearchBar editorSearchBar;
+
+    /**
+     * Text to search in the text editor once the file being opened is loaded, {@code null} if none.
+     */
+    private String pendingEditorSearch;
+
     /**
      * Default constructor
      *
@@ -121,8 +198,18 @@ final class FilesTabController implements Initializable {
      */
     public FilesTabController(final ExtendedProject project) {
         this.project = project;
-        this.extensionsToFileViewer = this.loadHtmlFiles();
+        this.templateListener = this::templateChanged;
+        TemplateRegistry.getShared().addTemplateListener(this.templateListener);
         this.editor = TextEditorFactory.getNanoTextEditor(true);
+        this.treeListingExecutor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("FunzDataView-files-listing-", 0).factory());
+        this.treeWatcher = this.createTreeWatcher();
+        this.loadedDirectories = new HashMap<>();
+        this.fileSearcher = new LatestTaskExecutor("FunzDataView-files-search", 1);
+        this.fileNameIndex = new FileNameIndex();
+        this.fileLoader = new LatestTaskExecutor("FunzDataView-file-loader", FilesTabController.MAX_CONCURRENT_LOADS);
+        this.contentSearcher = new LatestTaskExecutor("FunzDataView-content-search", 1);
+        this.contentSearch = new FileContentSearch(Runtime.getRuntime().availableProcessors());
     }
 
     @Override
@@ -137,10 +224,19 @@ final class FilesTabController implements Initializable {
         this.project.addCaseModifiedListener((index, what) -> {
             final Case caseToAdd = this.project.getCases().get(index);
             if (this.alwaysUpdateCheckbox.isSelected() && caseToAdd.hasRun() && what == Case.MODIFIED_STATE) {
-                this.fillTree();
+                // A watched tree is already updated with the file changes
+                Platform.runLater(() -> {
+                    if (!this.isTreeWatched()) {
+                        this.fillTree();
+                    }
+                });
+            }
+        });
+        this.webview.getEngine().getLoadWorker().stateProperty().addListener((obs, oldState, state) -> {
+            if (state == Worker.State.SUCCEEDED) {
+                this.shareStreamedFile();
             }
         });
-        this.webviewLoader = new WebViewSynchronousScriptExecutor(this.webview);
 
         this.deleteSearchButton.setGraphic(new ImageView(ResultsDictionary.DELETE_16.getPicture()));
         this.deleteSearchButton.disableProperty().bind(this.filesSearchField.textProperty().isEmpty());
@@ -149,18 +245,17 @@ final class FilesTabController implements Initializable {
         this.filesTree.getSelectionModel().getSelectedItems().addListener(
                 (ListChangeListener<TreeItem<File>>) c -> this.openDiffViewer.setDisable(c.getList().size() != 2));
 
+        // The search is only done once the user stops typing
+        final PauseTransition searchDelay = new PauseTransition(Duration.millis(FilesTabController.SEARCH_DELAY));
+        searchDelay.setOnFinished(e -> this.searchFiles());
         this.filesSearchField.textProperty().addListener((obs, oldValue, newValue) -> {
-            // expand the tree to see the results
-            this.expandButtonPressed();
-            final SearchableTreeItem<File> maybeRoot = (SearchableTreeItem<File>) this.filesTree.getRoot();
-            if (maybeRoot != null) {
-                maybeRoot.predicateProperty()
-                        .set(t -> t == null || t.getName().contains(this.filesSearchField.getCharacters()));
-            }
+            searchDelay.playFromStart();
             this.filesSearchField.requestFocus();
         });
 
-        this.editorSearchContainer.getItems().add(new SearchBar(this.editor));
+        this.editorSearchBar = new SearchBar(this.editor);
+        this.editorSearchContainer.getItems().add(this.editorSearchBar);
+        this.initializeContentSearch();
         this.editorContainer.getChildren().clear();
         this.addNodeSafely(this.editor.getView());
 
@@ -260,6 +355,112 @@ final class FilesTabController implements Initializable {
         this.fillTree();
     }
 
+    /**
+     * Action to perform when user requests a search in the content of the files.
+     */
+    @FXML
+    private void contentSearchRequested() {
+        final String text = this.contentSearchField.getText();
+        this.contentSearchResults.getItems().clear();
+        if (text == null || text.isEmpty() || !this.project.getResultsDir().isDirectory()) {
+            this.contentSearcher.cancel();
+            this.contentSearchStatus.setText(null);
+            return;
+        }
+
+        final File resultsDir = this.project.getResultsDir();
+        this.contentSearchStatus.setText(ResultsDictionary.CONTENT_SEARCH_RUNNING.getString());
+        final Task<List<FileContentSearch.Hit>> task = new Task<>() {
+            @Override
+            protected List<FileContentSearch.Hit> call() throws IOException {
+                // The hits are shown as soon as found, then sorted at the end
+                return FilesTabController.this.contentSearch.search(resultsDir, text,
+                        FilesTabController.MAX_CONTENT_SEARCH_HITS, hits -> Platform.runLater(() -> {
+                            if (FilesTabController.this.contentSearcher.isCurrent(this)) {
+                                FilesTabController.this.contentSearchResults.getItems().addAll(hits);
+                            }
+                        }), this::isCancelled);
+            }
+
+            @Override
+            protected void succeeded() {
+                if (FilesTabController.this.contentSearcher.isCurrent(this)) {
+                    FilesTabController.this.contentSearchResults.getItems().setAll(this.getValue());
+                    FilesTabController.this.contentSearchStatus
+                            .setText(ResultsDictionary.CONTENT_SEARCH_HITS.getString(this.getValue().size()));
+                }
+            }
+
+            @Override
+            protected void failed() {
+                FilesTabController.log.error(this.getException().toString(), this.getException());
+                if (FilesTabController.this.contentSearcher.isCurrent(this)) {
+                    FilesTabController.this.contentSearchStatus.setText(this.getException().getMessage());
+                }
+            }
+        };
+        this.contentSearcher.submit(task);
+    }
+
+    private void initializeContentSearch() {
+        this.contentSearchResults.setCellFactory(param -> new ListCell<>() {
+            @Override
+            protected void updateItem(final FileContentSearch.Hit item, final boolean empty) {
+                super.updateItem(item, empty);
+                if (!empty && item != null) {
+                    final Path resultsPath = FilesTabController.this.project.getResultsDir().toPath();
+                    this.setText(resultsPath.relativize(item.file().toPath()) + ":" + item.line() + ": "
+                            + item.text());
+                } else {
+                    this.setText(null);
+                }
+            }
+        });
+        this.contentSearchResults.getSelectionModel().selectedItemProperty().addListener((obs, oldV, hit) -> {
+            if (hit != null) {
+                this.showHit(hit);
+            }
+        });
+    }
+
+    /**
+     * Selects the file of a hit in the tree, the searched text being then searched in the text editor.
+     *
+     * @param hit
+     *         the hit
+     */
+    private void showHit(final FileContentSearch.Hit hit) {
+        if (!(this.filesTree.getRoot() instanceof final LazyFileTreeItem root)) {
+            return;
+        }
+        FilesTabController.expandPath(root, hit.file(), item -> {
+            if (root != this.filesTree.getRoot()
+                    || hit != this.contentSearchResults.getSelectionModel().getSelectedItem()) {
+                // Another hit has been selected, or the tree filled again, meanwhile
+                return;
+            }
+            this.pendingEditorSearch = this.contentSearchField.getText();
+            if (item == this.filesTree.getSelectionModel().getSelectedItem()) {
+                this.searchPendingInEditor();
+            } else {
+                this.filesTree.getSelectionModel().clearSelection();
+                this.filesTree.getSelectionModel().select(item);
+                this.filesTree.scrollTo(this.filesTree.getRow(item));
+            }
+        });
+    }
+
+    /**
+     * Searches in the text editor the text requested before opening its file, if any.
+     */
+    private void searchPendingInEditor() {
+        if (this.pendingEditorSearch != null) {
+            this.editorSearchBar.setSearchText(this.pendingEditorSearch);
+            this.editorSearchBar.search();
+            this.pendingEditorSearch = null;
+        }
+    }
+
     /**
      * @return the FX view
      */
@@ -268,24 +469,19 @@ final class FilesTabController implements Initializable {
     }
 
     /**
-     * @return the mapping from extensions to HTML files.
+     * Called in the templates watching thread when an HTML template changes.
      */
-    private Map<String, HtmlFileViewer> loadHtmlFiles() {
-        final Map<String, HtmlFileViewer> extensions = new HashMap<>();
-
-        final File htmlExtensionsFolder = HtmlVariablesUtils.Location.EXTENSIONS.getFolder();
-        final File[] htmlFiles = htmlExtensionsFolder.listFiles((dir, name) -> name.endsWith(".html"));
-
-        if (htmlFiles != null) {
-            for (final File extensionFile : htmlFiles) {
-                final HtmlFileViewer viewer = new HtmlFileViewer(extensionFile);
-                for (final String ext : viewer.getExtensions()) {
-                    extensions.put(ext, viewer);
+    private void templateChanged(final File template) {
+        final File extensionsFolder = HtmlVariablesUtils.Location.EXTENSIONS.getFolder();
+        if (extensionsFolder != null && extensionsFolder.getAbsoluteFile().equals(template.getParentFile())) {
+            Platform.runLater(() -> {
+                // The selected file may now be displayed by another template
+                final TreeItem<File> selectedItem = this.filesTree.getSelectionModel().getSelectedItem();
+                if (selectedItem != null && selectedItem.getValue().isFile()) {
+                    this.open(selectedItem.getValue());
                 }
-            }
+            });
         }
-
-        return extensions;
     }
 
     private void initializeFileTree() {
@@ -323,41 +519,94 @@ final class FilesTabController implements Initializable {
     public void selectItem(final String pathRegex, final String fileRegex) {
         final TreeItem<File> root = this.filesTree.getRoot();
         if (root != null) {
-
-            final TreeItem<File> treeItem = FilesTabController.getTreeViewItem(root, pathRegex, fileRegex);
-            if (treeItem != null) {
-                this.filesTree.getSelectionModel().select(treeItem);
-                this.splitPane.setDividerPositions(0.05);
-            }
-
+            // The tree items are lazy: the file is searched on disk, then its parents are expanded
+            final File rootFile = root.getValue();
+            this.treeListingExecutor.execute(() -> {
+                final File file = FilesTabController.findFile(rootFile, rootFile.isDirectory(), pathRegex, fileRegex);
+                if (file != null) {
+                    Platform.runLater(() -> this.revealFile(root, file));
+                }
+            });
         }
     }
 
     /**
-     * Return TreeItem with first file name found matching the regex
+     * Return first file found matching the regex, directories being searched in the order of the tree
      *
-     * @param item
+     * @param file
+     *         the file to check, then its children
+     * @param directory
+     *         whether it is a directory
      * @param pathRegex
-     * @return
+     *         regex of the absolute path, may be {@code null}
+     * @param fileRegex
+     *         regex of the file name
+     * @return the first matching file, {@code null} if none
      */
-    private static TreeItem<File> getTreeViewItem(final TreeItem<File> item, final String pathRegex,
+    private static File findFile(final File file, final boolean directory, final String pathRegex,
             final String fileRegex) {
-        if (Pattern.matches(fileRegex, item.getValue().getName()) && //
-                (pathRegex == null || Pattern.matches(pathRegex, item.getValue().getAbsolutePath()))) {
-            return item;
+        if (Pattern.matches(fileRegex, file.getName()) && //
+                (pathRegex == null || Pattern.matches(pathRegex, file.getAbsolutePath()))) {
+            return file;
         }
 
-        for (final TreeItem<File> child : item.getChildren()) {
-            final TreeItem<File> s = FilesTabController.getTreeViewItem(child, pathRegex, fileRegex);
-            if (s != null) {
-                return s;
+        if (directory) {
+            for (final LazyFileTreeItem.Entry entry : LazyFileTreeItem.listEntries(file)) {
+                final File found = FilesTabController.findFile(entry.file(), entry.directory(), pathRegex, fileRegex);
+                if (found != null) {
+                    return found;
+                }
             }
-
         }
 
         return null;
     }
 
+    /**
+     * Expands the parents of the given file, then selects it.
+     *
+     * @param root
+     *         the root the file was searched from
+     * @param file
+     *         the file to select
+     */
+    private void revealFile(final TreeItem<File> root, final File file) {
+        FilesTabController.expandPath(root, file, item -> {
+            if (root != this.filesTree.getRoot()) {
+                // The tree has been filled again meanwhile
+                return;
+            }
+            this.filesTree.getSelectionModel().select(item);
+            this.splitPane.setDividerPositions(0.05);
+        });
+    }
+
+    /**
+     * Expands the parent directories of the given file, their children being listed in background by the tree items.
+     * To be called from the JavaFX application thread.
+     *
+     * @param item
+     *         the root of the tree, then the parent directories of the file
+     * @param file
+     *         a file of the tree
+     * @param action
+     *         called in the JavaFX application thread with the item of the file, once its parents are expanded; not
+     *         called if the file is not in the tree
+     */
+    private static void expandPath(final TreeItem<File> item, final File file,
+            final Consumer<TreeItem<File>> action) {
+        if (item.getValue().equals(file)) {
+            action.accept(item);
+            return;
+        }
+        final LazyFileTreeItem lazyItem = (LazyFileTreeItem) item;
+        lazyItem.loadChildren(() -> {
+            final Path path = file.toPath();
+            lazyItem.getItems().stream().filter(child -> path.startsWith(child.getValue().toPath())).findFirst()
+                    .ifPresent(child -> FilesTabController.expandPath(child, file, action));
+        });
+        lazyItem.setExpanded(true);
+    }
 
     /**
      * Add a node to the editor container if not already present.
@@ -369,11 +618,48 @@ final class FilesTabController implements Initializable {
         }
     }
 
+    /**
+     * Gives the streamed file to the loaded page as the {@code funzFile} object, then calls its
+     * {@code funzFileReady(funzFile)} function if defined.
+     */
+    private void shareStreamedFile() {
+        if (this.streamedFile == null
+                || this.webview.getEngine().getLoadWorker().getState() != Worker.State.SUCCEEDED) {
+            return;
+        }
+        try {
+            final JSObject window = (JSObject) this.webview.getEngine().executeScript("window");
+            window.setMember("funzFile", this.streamedFile);
+            this.webview.getEngine().executeScript("if (typeof funzFileReady === 'function') funzFileReady(funzFile)");
+        } catch (final JSException e) {
+            FilesTabController.log.warn("Unable to stream the file to the view: {}", e.getMessage());
+        }
+    }
+
+    private void closeStreamedFile() {
+        if (this.streamedFile != null) {
+            this.closeStreamedFile(this.streamedFile);
+            this.streamedFile = null;
+        }
+    }
+
+    private void closeStreamedFile(final MappedFileReader reader) {
+        try {
+            reader.close();
+        } catch (final IOException e) {
+            FilesTabController.log.debug(e.getMessage(), e);
+        }
+    }
+
     void open(final File file) {
+        // A new selection makes the load in progress useless
+        this.fileLoader.cancel();
+        this.closeStreamedFile();
         this.editorContainer.getChildren().clear();
         this.rightSide.getChildren().remove(this.editorSearchContainer);
 
         final String extension = file == null ? "" : file.getName().substring(file.getName().indexOf('.') + 1);
+        final Map<String, HtmlFileViewer> fileViewers = TemplateRegistry.getShared().getFileViewers();
         if (file == null || file.isDirectory()) {
             // We don't have a file
             this.addNodeSafely(new Label(ResultsDictionary.SELECT_FILE.getString()));
@@ -382,22 +668,44 @@ final class FilesTabController implements Initializable {
             // We cannot read the file
             this.addNodeSafely(new Label(ResultsDictionary.EMPTY_FILE.getString()));
 
-        } else if (this.extensionsToFileViewer.containsKey(extension)) {
+        } else if (fileViewers.containsKey(extension)) {
 
-            final Task<Void> task = new Task<>() {
+            final HtmlFileViewer fileViewer = fileViewers.get(extension);
+            final Task<RenderedFile> task = new Task<>() {
                 @Override
-                protected Void call() {
-                    final HtmlFileViewer fileViewer = FilesTabController.this.extensionsToFileViewer.get(extension);
-                    FilesTabController.this.webviewLoader.loadHtmlContent(fileViewer.getContent(file));
-                    return null;
+                protected RenderedFile call() throws IOException {
+                    // A file too big to be inlined is read on demand by the page
+                    final MappedFileReader reader = fileViewer.isStreamed(file) ? new MappedFileReader(file) : null;
+                    try {
+                        return new RenderedFile(fileViewer.getContent(file), reader);
+                    } catch (final RuntimeException e) {
+                        if (reader != null) {
+                            FilesTabController.this.closeStreamedFile(reader);
+                        }
+                        throw e;
+                    }
                 }
 
                 @Override
                 protected void succeeded() {
-                    Platform.runLater(() -> addNodeSafely(FilesTabController.this.webview));
+                    final RenderedFile rendered = this.getValue();
+                    if (FilesTabController.this.fileLoader.isCurrent(this)) {
+                        // Only the latest selection is displayed
+                        FilesTabController.this.streamedFile = rendered.reader();
+                        FilesTabController.this.webview.getEngine().loadContent(rendered.html());
+                        FilesTabController.this.addNodeSafely(FilesTabController.this.webview);
+                    } else if (rendered.reader() != null) {
+                        FilesTabController.this.closeStreamedFile(rendered.reader());
+                    }
+                }
+
+                @Override
+                protected void failed() {
+                    FilesTabController.log.warn(ResultsDictionary.UNABLE_TO_LOAD_FILE.getString(file.getName(),
+                            this.getException().getMessage()));
                 }
             };
-            new Thread(task).start();
+            this.fileLoader.submit(task);
         } else if (Disk.isBinary(file)) {
             // We cannot read the file
             this.addNodeSafely(new Label(ResultsDictionary.BINARY_FILE.getString()));
@@ -407,22 +715,30 @@ final class FilesTabController implements Initializable {
             final Task<Void> task = new Task<>() {
                 @Override
                 protected Void call() {
-                    FilesTabController.this.editor.openFile(file);
+                    // The editor reads the file itself and waits for its web engine, so it is filled outside of the
+                    // JavaFX application thread: the loads fill it one at a time, only while they are the latest one
+                    synchronized (FilesTabController.this.editor) {
+                        if (FilesTabController.this.fileLoader.isCurrent(this)) {
+                            FilesTabController.this.editor.openFile(file);
+                        }
+                    }
                     return null;
                 }
 
                 @Override
                 protected void succeeded() {
-                    Platform.runLater(() -> {
-                        addNodeSafely(FilesTabController.this.editor.getView());
-                        if (!rightSide.getChildren().contains(FilesTabController.this.editorSearchContainer)) {
+                    if (FilesTabController.this.fileLoader.isCurrent(this)) {
+                        FilesTabController.this.addNodeSafely(FilesTabController.this.editor.getView());
+                        if (!FilesTabController.this.rightSide.getChildren()
+                                .contains(FilesTabController.this.editorSearchContainer)) {
                             FilesTabController.this.rightSide.getChildren()
                                     .addFirst(FilesTabController.this.editorSearchContainer);
                         }
-                    });
+                        FilesTabController.this.searchPendingInEditor();
+                    }
                 }
             };
-            new Thread(task).start();
+            this.fileLoader.submit(task);
         }
 
     }
@@ -431,37 +747,224 @@ final class FilesTabController implements Initializable {
         this.loadContentIntoTree(this.project.getResultsDir());
     }
 
-    private SearchableTreeItem<File> createItem(final File file) {
-        final SearchableTreeItem<File> curentItem = new SearchableTreeItem<>(file);
+    private void loadContentIntoTree(final File directory) {
+        if (this.treeWatcher != null) {
+            this.treeWatcher.clear();
+        }
+        this.loadedDirectories.clear();
+        this.filesTree.setRoot(new LazyFileTreeItem(directory, this.treeListingExecutor,
+                item -> this.loadedDirectories.put(item.getValue(), item)));
+
+        // The index is built in background, watching each directory of the tree
+        final FileNameIndex index = new FileNameIndex();
+        this.fileNameIndex = index;
+        if (directory.isDirectory()) {
+            this.treeListingExecutor.execute(() -> {
+                index.addTree(directory, this::watchDirectory);
+                Platform.runLater(() -> {
+                    if (this.fileNameIndex == index && this.filesSearchField.getLength() > 0) {
+                        this.searchFiles();
+                    }
+                });
+            });
+        }
+    }
 
-        // List children
-        if (file.isDirectory()) {
-            // Sorts the directory before the files and then create an item for each
-            Arrays.stream(file.listFiles()).sorted((o1, o2) -> {
-                if (o1.isDirectory() && !o2.isDirectory()) {
-                    return -1;
-                } else if (!o1.isDirectory() && o2.isDirectory()) {
-                    return 1;
-                } else {
-                    return o1.compareTo(o2);
+    private void watchDirectory(final File directory) {
+        if (this.treeWatcher != null) {
+            this.treeWatcher.watch(directory);
+        }
+    }
+
+    /**
+     * Searches the files whose name contains the searched text in the index, in background, then shows only them and
+     * their parents in the tree.
+     */
+    private void searchFiles() {
+        final String text = this.filesSearchField.getText();
+        if (!(this.filesTree.getRoot() instanceof final LazyFileTreeItem root)) {
+            return;
+        }
+        if (text == null || text.isEmpty()) {
+            this.fileSearcher.cancel();
+            root.predicateProperty().set(t -> true);
+            return;
+        }
+
+        final FileNameIndex index = this.fileNameIndex;
+        final Task<List<File>> task = new Task<>() {
+            @Override
+            protected List<File> call() {
+                return index.search(text);
+            }
+
+            @Override
+            protected void succeeded() {
+                if (FilesTabController.this.fileSearcher.isCurrent(this)
+                        && FilesTabController.this.filesTree.getRoot() == root) {
+                    FilesTabController.this.showSearchResults(root, this.getValue());
                 }
-            }).forEach(f -> curentItem.getItems().add(this.createItem(f)));
+            }
+        };
+        this.fileSearcher.submit(task);
+    }
+
+    /**
+     * Filters the tree to show only the found files and their parents, and expands the parents of the first ones.
+     *
+     * @param root
+     *         the root of the tree
+     * @param foundFiles
+     *         the files found
+     */
+    private void showSearchResults(final LazyFileTreeItem root, final List<File> foundFiles) {
+        final File rootFile = root.getValue();
+        final Set<File> visibleFiles = new HashSet<>(foundFiles);
+        visibleFiles.add(rootFile);
+        for (final File file : foundFiles) {
+            File parent = file.getParentFile();
+            while (parent != null && visibleFiles.add(parent) && !parent.equals(rootFile)) {
+                parent = parent.getParentFile();
+            }
         }
+        root.predicateProperty().set(t -> t == null || visibleFiles.contains(t));
 
-        return curentItem;
+        for (final File file : foundFiles.subList(0, Math.min(foundFiles.size(),
+                FilesTabController.MAX_EXPANDED_SEARCH_RESULTS))) {
+            FilesTabController.expandPath(root, file, item -> {
+                // Only the parents are expanded
+            });
+        }
     }
 
-    private void loadContentIntoTree(final File directory) {
-        this.filesTree.setRoot(this.createItem(directory));
+    /**
+     * @return {@code true} if the changes in the results directory are applied to the tree
+     */
+    private boolean isTreeWatched() {
+        return this.treeWatcher != null && this.filesTree.getRoot() instanceof final LazyFileTreeItem root
+                && root.isDirectory();
+    }
+
+    /**
+     * Applies a change of the results directory to the file names index and, if always updated, to the tree.
+     *
+     * @param directory
+     *         the directory containing the changed file
+     * @param change
+     *         the kind of change
+     * @param file
+     *         the changed file
+     * @param fileDirectory
+     *         whether the changed file is a directory
+     */
+    private void applyFileChange(final File directory, final FileTreeWatcher.Change change, final File file,
+            final boolean fileDirectory) {
+        final FileNameIndex index = this.fileNameIndex;
+        switch (change) {
+        case CREATED -> {
+            if (fileDirectory) {
+                this.treeListingExecutor.execute(() -> index.addTree(file, this::watchDirectory));
+            } else {
+                index.add(file);
+            }
+        }
+        case DELETED -> index.remove(file);
+        case OVERFLOW -> this.treeListingExecutor.execute(() -> {
+            index.remove(directory);
+            index.addTree(directory, this::watchDirectory);
+        });
+        case MODIFIED -> {
+            // Names unchanged
+        }
+        }
+
+        if (!this.alwaysUpdateCheckbox.isSelected()) {
+            return;
+        }
+
+        final LazyFileTreeItem item = this.loadedDirectories.get(directory);
+        switch (change) {
+        case CREATED -> {
+            if (item != null) {
+                item.childCreated(file, fileDirectory);
+            }
+        }
+        case DELETED -> {
+            if (item != null) {
+                item.childDeleted(file);
+            }
+            final Path path = file.toPath();
+            this.loadedDirectories.keySet().removeIf(loaded -> loaded.toPath().startsWith(path));
+        }
+        case MODIFIED -> {
+            // The selected file is displayed again
+            final TreeItem<File> selectedItem = this.filesTree.getSelectionModel().getSelectedItem();
+            if (selectedItem != null && file.equals(selectedItem.getValue())) {
+                this.open(file);
+            }
+        }
+        case OVERFLOW -> {
+            if (item != null) {
+                item.reloadChildren();
+            }
+        }
+        }
+    }
+
+    /**
+     * @return the watcher of the tree directories, {@code null} if the file system cannot be watched
+     */
+    private FileTreeWatcher createTreeWatcher() {
+        try {
+            return new FileTreeWatcher(this::applyFileChange);
+        } catch (final IOException e) {
+            FilesTabController.log.warn("Results directory will not be watched: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Releases the watcher, the threads and the open files of this controller, once its project is closed.
+     */
+    void dispose() {
+        TemplateRegistry.getShared().removeTemplateListener(this.templateListener);
+        this.fileLoader.shutdown();
+        this.fileSearcher.shutdown();
+        this.contentSearcher.shutdown();
+        this.treeListingExecutor.shutdownNow();
+        this.contentSearch.close();
+        this.closeStreamedFile();
+        if (this.treeWatcher != null) {
+            try {
+                this.treeWatcher.close();
+            } catch (final IOException e) {
+                FilesTabController.log.debug(e.getMessage(), e);
+            }
+        }
     }
 
     /**
      * Clear the tree (and the viewer) from all its content.
      */
     private void clearTree() {
+        this.fileLoader.cancel();
+        if (this.treeWatcher != null) {
+            this.treeWatcher.clear();
+        }
         this.filesTree.setRoot(null);
         this.editor.closeFile();
         this.filesSearchField.setText(null);
     }
 
+    /**
+     * A file rendered by its HTML template, not yet displayed.
+     *
+     * @param html
+     *         the HTML content to load
+     * @param reader
+     *         the reader of the streamed file, {@code null} if the file is inlined
+     */
+    private record RenderedFile(String html, MappedFileReader reader) {
+    }
+
 }
@@ -0,0 +1,89 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.controller;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javafx.concurrent.Task;
+
+/**
+ * Runs background {@link Task}s of which only the latest one matters: submitting a task cancels the previous one, and
+ * at most a fixed number of tasks run at the same time on virtual threads. Must be used from the JavaFX application
+ * thread, except {@link #isCurrent(Task)}.
+ *
+ * @author Arnaud Trouche - Artenum SARL
+ */
+final class LatestTaskExecutor {
+
+    private final ExecutorService executor;
+
+    /**
+     * Latest submitted task, {@code null} if none or cancelled.
+     */
+    private volatile Task<?> currentTask;
+
+    /**
+     * @param name
+     *         the prefix of the threads names
+     * @param maxConcurrentTasks
+     *         the maximal number of tasks running at the same time, cancelled ones included until they stop
+     */
+    LatestTaskExecutor(final String name, final int maxConcurrentTasks) {
+        this.executor = Executors.newFixedThreadPool(maxConcurrentTasks,
+                Thread.ofVirtual().name(name + "-", 0).factory());
+    }
+
+    /**
+     * Cancels the current task, then runs the given one.
+     *
+     * @param task
+     *         the task to run
+     */
+    void submit(final Task<?> task) {
+        this.cancel();
+        this.currentTask = task;
+        this.executor.execute(task);
+    }
+
+    /**
+     * Cancels the current task, if any. A cancelled task still waiting for a thread never starts.
+     */
+    void cancel() {
+        if (this.currentTask != null) {
+            this.currentTask.cancel(true);
+            this.currentTask = null;
+        }
+    }
+
+    /**
+     * Cancels the current task and stops the threads: no task can be submitted anymore.
+     */
+    void shutdown() {
+        this.cancel();
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * May be called from any thread, for instance by a task checking it is still current before applying its result.
+     *
+     * @param task
+     *         a task submitted to this executor
+     * @return {@code true} if it is the latest submitted task and it is not cancelled
+     */
+    boolean isCurrent(final Task<?> task) {
+        return task == this.currentTask;
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.controller;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import org.asnr.funz.model.ExtendedProject;
+
+import com.artenum.tk.ui.control.tree.fx.SearchableTreeItem;
+
+import javafx.application.Platform;
+import javafx.scene.control.TreeItem;
+
+/**
+ * {@link SearchableTreeItem} of a file whose children are only listed when it is first expanded. The listing and the
+ * sort are done once, in background, the items being added in the JavaFX application thread.
+ *
+ * @author Arnaud Trouche - Artenum SARL
+ */
+final class LazyFileTreeItem extends SearchableTreeItem<File> {
+
+    /**
+     * Directories first, then files, each by name.
+     */
+    private static final Comparator<Entry> ENTRY_ORDER = Comparator.comparing((final Entry e) -> !e.directory())
+            .thenComparing(Entry::file);
+
+    private final boolean directory;
+
+    private final Executor listingExecutor;
+
+    /**
+     * Called with a directory item right before listing its children, to watch it.
+     */
+    private final Consumer<LazyFileTreeItem> listingListener;
+
+    /**
+     * Changes received and actions requested while the children are being listed, applied once they are added.
+     */
+    private final List<Runnable> pendingChanges;
+
+    /**
+     * Whether the listing of the children has been requested.
+     */
+    private boolean listingRequested;
+
+    /**
+     * Whether the children have been added, accessed in the JavaFX application thread only.
+     */
+    private boolean childrenLoaded;
+
+    /**
+     * @param file
+     *         the file of the item
+     * @param listingExecutor
+     *         the executor listing the children
+     * @param listingListener
+     *         called with a directory item right before listing its children
+     */
+    LazyFileTreeItem(final File file, final Executor listingExecutor,
+            final Consumer<LazyFileTreeItem> listingListener) {
+        this(file, file.isDirectory(), listingExecutor, listingListener);
+    }
+
+    private LazyFileTreeItem(final File file, final boolean directory, final Executor listingExecutor,
+            final Consumer<LazyFileTreeItem> listingListener) {
+        super(file);
+        this.directory = directory;
+        this.listingExecutor = listingExecutor;
+        this.listingListener = listingListener;
+        this.pendingChanges = new ArrayList<>();
+
+        if (directory) {
+            this.expandedProperty().addListener((obs, oldValue, expanded) -> {
+                if (expanded) {
+                    this.requestChildren();
+                }
+            });
+        }
+    }
+
+    @Override
+    public boolean isLeaf() {
+        return !this.directory;
+    }
+
+    /**
+     * @return whether the file of this item is a directory
+     */
+    boolean isDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * Lists the children in background, unless already done.
+     */
+    private void requestChildren() {
+        if (!this.listingRequested) {
+            this.listingRequested = true;
+            this.listingListener.accept(this);
+            this.listingExecutor.execute(() -> {
+                final List<Entry> entries = LazyFileTreeItem.listEntries(this.getValue());
+                Platform.runLater(() -> this.setChildren(entries));
+            });
+        }
+    }
+
+    /**
+     * Lists the children in background unless already done, then runs the given action once they are added. To be
+     * called from the JavaFX application thread, the action being run in it.
+     *
+     * @param action
+     *         the action needing the children
+     */
+    void loadChildren(final Runnable action) {
+        if (!this.directory || this.childrenLoaded) {
+            action.run();
+        } else {
+            this.pendingChanges.add(action);
+            this.requestChildren();
+        }
+    }
+
+    private void setChildren(final List<Entry> entries) {
+        if (this.childrenLoaded) {
+            return;
+        }
+        this.childrenLoaded = true;
+
+        final List<LazyFileTreeItem> children = new ArrayList<>(entries.size());
+        for (final Entry entry : entries) {
+            children.add(this.createChild(entry));
+        }
+        this.getItems().setAll(children);
+
+        this.pendingChanges.forEach(Runnable::run);
+        this.pendingChanges.clear();
+    }
+
+    private LazyFileTreeItem createChild(final Entry entry) {
+        return new LazyFileTreeItem(entry.file(), entry.directory(), this.listingExecutor, this.listingListener);
+    }
+
+    /**
+     * Adds the item of a created child file at its sorted position, unless already present. To be called from the
+     * JavaFX application thread.
+     *
+     * @param file
+     *         the created file
+     * @param fileDirectory
+     *         whether the created file is a directory
+     */
+    void childCreated(final File file, final boolean fileDirectory) {
+        if (this.deferChange(() -> this.childCreated(file, fileDirectory))) {
+            return;
+        }
+        // A file replaced by a directory of the same name, or conversely, is listed once
+        final int replaced = this.searchChild(new Entry(file, !fileDirectory));
+        if (replaced >= 0) {
+            this.getItems().remove(replaced);
+        }
+        final Entry entry = new Entry(file, fileDirectory);
+        final int position = this.searchChild(entry);
+        if (position < 0) {
+            this.getItems().add(-(position + 1), this.createChild(entry));
+        }
+    }
+
+    /**
+     * Inserts a new child at its sorted position.
+     */
+    private void insertChild(final Entry entry) {
+        final int position = this.searchChild(entry);
+        this.getItems().add(position < 0 ? -(position + 1) : position, this.createChild(entry));
+    }
+
+    /**
+     * Binary search of a child in the sorted items.
+     *
+     * @return the index of the child if present, otherwise {@code (-(insertion point) - 1)}
+     */
+    private int searchChild(final Entry entry) {
+        final List<TreeItem<File>> items = this.getItems();
+        int low = 0;
+        int high = items.size() - 1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            final LazyFileTreeItem item = (LazyFileTreeItem) items.get(middle);
+            final int comparison = LazyFileTreeItem.ENTRY_ORDER.compare(new Entry(item.getValue(), item.directory),
+                    entry);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Removes the item of a deleted child file, if present. To be called from the JavaFX application thread.
+     *
+     * @param file
+     *         the deleted file
+     */
+    void childDeleted(final File file) {
+        if (!this.deferChange(() -> this.childDeleted(file))) {
+            // A deleted file can no longer be checked for being a directory: both positions are searched
+            int position = this.searchChild(new Entry(file, true));
+            if (position < 0) {
+                position = this.searchChild(new Entry(file, false));
+            }
+            if (position >= 0) {
+                this.getItems().remove(position);
+            }
+        }
+    }
+
+    /**
+     * Lists the children again in background and applies the differences, keeping the items still present (and their
+     * expansion). To be called from the JavaFX application thread.
+     */
+    void reloadChildren() {
+        if (this.deferChange(this::reloadChildren)) {
+            return;
+        }
+        this.listingExecutor.execute(() -> {
+            final List<Entry> entries = LazyFileTreeItem.listEntries(this.getValue());
+            Platform.runLater(() -> {
+                final Set<File> files = new HashSet<>();
+                for (final Entry entry : entries) {
+                    files.add(entry.file());
+                }
+                this.getItems().removeIf(item -> !files.contains(item.getValue()));
+
+                final Set<File> existingFiles = new HashSet<>();
+                for (final TreeItem<File> item : this.getItems()) {
+                    existingFiles.add(item.getValue());
+                }
+                for (final Entry entry : entries) {
+                    if (!existingFiles.contains(entry.file())) {
+                        this.insertChild(entry);
+                    }
+                }
+            });
+        });
+    }
+
+    /**
+     * @return {@code true} if the change has been deferred (children being listed) or is useless (never listed)
+     */
+    private boolean deferChange(final Runnable change) {
+        if (this.childrenLoaded) {
+            return false;
+        }
+        if (this.listingRequested) {
+            this.pendingChanges.add(change);
+        }
+        return true;
+    }
+
+    /**
+     * @param directory
+     *         a directory
+     * @return its files, sorted, each one being checked only once for being a directory, the internal files being
+     *         excluded (see {@link ExtendedProject#isInternalResultsFile(File)})
+     */
+    static List<Entry> listEntries(final File directory) {
+        final File[] files = directory.listFiles();
+        if (files == null) {
+            return List.of();
+        }
+        final List<Entry> entries = new ArrayList<>(files.length);
+        for (final File file : files) {
+            if (!ExtendedProject.isInternalResultsFile(file)) {
+                entries.add(new Entry(file, file.isDirectory()));
+            }
+        }
+        entries.sort(LazyFileTreeItem.ENTRY_ORDER);
+        return entries;
+    }
+
+    /**
+     * A listed file.
+     *
+     * @param file
+     *         the file
+     * @param directory
+     *         whether it is a directory
+     */
+    record Entry(File file, boolean directory) {
+    }
+}
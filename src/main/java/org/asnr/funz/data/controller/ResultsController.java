@@ -178,6 +178,15 @@ public final class ResultsController implements Initializable {
         this.viewsController.getTableDataMiner().exportTo(file, extension);
     }
 
+    /**
+     * Releases the watchers, threads and listeners of the tabs, once the project is closed or replaced.
+     */
+    public void dispose() {
+        this.filesController.dispose();
+        this.viewsController.dispose();
+        this.doeController.dispose();
+    }
+
     private static void addDynamicUpdate(final Tab tab, final AbstractDynamicUpdateController controller) {
         tab.selectedProperty().addListener((o, wasSelected, isSelected) -> {
             if (!wasSelected.booleanValue() && isSelected.booleanValue()) {
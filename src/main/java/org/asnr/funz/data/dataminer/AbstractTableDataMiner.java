@@ -15,30 +15,29 @@
 package org.asnr.funz.data.dataminer;
 
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Set;
 import java.util.prefs.Preferences;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import javax.swing.JOptionPane;
 
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.asnr.funz.data.export.ExportFormat;
+import org.asnr.funz.data.export.ResultsExporter;
 import org.asnr.funz.data.i18n.ResultsDictionary;
 import org.asnr.funz.data.model.CaseResults;
 import org.asnr.funz.data.model.DiscreteCaseResults;
+import org.asnr.funz.data.model.ResultChange;
+import org.asnr.funz.data.model.ResultChangeListener;
+import org.asnr.funz.data.model.ResultModel;
 import org.asnr.funz.data.model.impl.DefaultResultModel;
 import org.asnr.funz.data.view.VariableResultTableCell;
 import org.asnr.funz.data.view.utils.TableViewUtils;
@@ -51,9 +50,15 @@ import com.artenum.tk.ui.i18n.ArtTkDictionary;
 import com.artenum.tk.ui.util.FxHelper;
 
 import javafx.application.Platform;
+import javafx.beans.Observable;
 import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.transformation.SortedList;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Group;
@@ -64,6 +69,7 @@ import javafx.scene.control.ContextMenu;
 import javafx.scene.control.Label;
 import javafx.scene.control.MenuButton;
 import javafx.scene.control.MenuItem;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.SelectionMode;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TablePosition;
@@ -105,14 +111,37 @@ abstract class AbstractTableDataMiner<R extends CaseResults, C> extends Abstract
 
     private final TableView<CaseResults> valuesTable;
 
+    /**
+     * Displayed rows, in the order of the results. The table shows them through a {@link SortedList} so that adding
+     * or invalidating rows keeps the sort and the selection.
+     */
+    private final ObservableList<CaseResults> rows;
+
+    /**
+     * Version of each displayed row, incremented to make the {@link #rows} list notify an update of the row.
+     */
+    private final Map<CaseResults, IntegerProperty> rowVersions;
+
+    /**
+     * Variables and outputs of the displayed columns, the columns being only recreated when they change.
+     */
+    private List<String> columnKeys;
+
     private final VBox view;
 
+    private final HBox toolbar;
+
     private List<ColumnVisibility> defaultOutputSelection;
 
     private final ContextMenu contextMenu;
 
     private final HashMap<String, String> customParameters;
 
+    /**
+     * Listener of the model changes, kept to be removed once disposed.
+     */
+    private final ResultChangeListener resultChangeListener;
+
     /**
      * Default constructor.
      *
@@ -142,22 +171,28 @@ abstract class AbstractTableDataMiner<R extends CaseResults, C> extends Abstract
         multipleColumnChooserButton.setOnAction(
                 e -> this.displayColumnDialog(FxHelper.getWindow(multipleColumnChooserButton)));
 
-        // Export to CSV/XLS button
+        // Export to CSV/XLSX button
         final MenuButton exportToButton = new MenuButton(ResultsDictionary.EXPORT_TO.getString());
-        final MenuItem exportToCSVItem = new MenuItem("CSV");
-        final MenuItem exportToXLSItem = new MenuItem("XLS");
-        exportToCSVItem.setOnAction(event -> this.exportTo("CSV"));
-        exportToXLSItem.setOnAction(event -> this.exportTo("XLS"));
-        exportToButton.getItems().add(exportToCSVItem);
-        exportToButton.getItems().add(exportToXLSItem);
+        for (final ExportFormat format : ExportFormat.values()) {
+            final MenuItem exportToItem = new MenuItem(format.name());
+            exportToItem.setOnAction(event -> this.exportTo(format.name()));
+            exportToButton.getItems().add(exportToItem);
+        }
 
-        final HBox toolbar = new HBox(5, hBox, multipleColumnChooserButton, exportToButton);
-        toolbar.setAlignment(Pos.CENTER_RIGHT);
-        toolbar.setPadding(new Insets(5));
+        this.toolbar = new HBox(5, hBox, multipleColumnChooserButton, exportToButton);
+        this.toolbar.setAlignment(Pos.CENTER_RIGHT);
+        this.toolbar.setPadding(new Insets(5));
 
-        final Group visibilityGroup = new Group(toolbar);
+        final Group visibilityGroup = new Group(this.toolbar);
+
+        this.rowVersions = new IdentityHashMap<>();
+        this.rows = FXCollections.observableArrayList(
+                row -> new Observable[] { this.rowVersions.computeIfAbsent(row, r -> new SimpleIntegerProperty()) });
 
         this.valuesTable = new TableView<>();
+        final SortedList<CaseResults> sortedRows = new SortedList<>(this.rows);
+        sortedRows.comparatorProperty().bind(this.valuesTable.comparatorProperty());
+        this.valuesTable.setItems(sortedRows);
         this.valuesTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_ALL_COLUMNS);
         this.valuesTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
 
@@ -182,6 +217,18 @@ abstract class AbstractTableDataMiner<R extends CaseResults, C> extends Abstract
         VBox.setVgrow(this.valuesTable, Priority.ALWAYS);
 
         this.customParameters = new HashMap<>();
+
+        // Only the updated rows are invalidated, new and removed cases are handled when refreshing the cases
+        this.resultChangeListener = this::resultsChanged;
+        currentProject.getResultModel().addResultChangeListener(this.resultChangeListener);
+    }
+
+    /**
+     * Stops listening to the model.
+     */
+    @Override
+    public void dispose() {
+        this.getResultModel().removeResultChangeListener(this.resultChangeListener);
     }
 
     public Map<String, String> getCustomParameters() {
@@ -217,20 +264,88 @@ abstract class AbstractTableDataMiner<R extends CaseResults, C> extends Abstract
     @Override
     public void clear() {
         Platform.runLater(() -> {
+            this.columnKeys = null;
             this.valuesTable.getColumns().clear();
             this.valuesTable.getColumns().add(new TableColumn<>(ResultsDictionary.DATA.getString()));
-            this.valuesTable.getItems().clear();
+            this.rows.clear();
+            this.rowVersions.clear();
         });
     }
 
     @Override
     public void refreshCases() {
-        Platform.runLater(() -> this.valuesTable.getItems().setAll(this.getResults()));
+        Platform.runLater(this::synchronizeRows);
     }
 
     @Override
     public void refreshVariables() {
-        Platform.runLater(this::recomputeColumns);
+        Platform.runLater(() -> {
+            final List<String> keys = this.computeColumnKeys();
+            if (!keys.equals(this.columnKeys)) {
+                this.columnKeys = keys;
+                this.recomputeColumns();
+            }
+        });
+    }
+
+    /**
+     * Removes the rows that are not in the results anymore and appends the new ones, the other rows being kept as
+     * they are.
+     */
+    private void synchronizeRows() {
+        final List<R> results = new ArrayList<>(this.getResults());
+        if ((results.size() == this.rows.size()) && this.rowVersions.keySet().containsAll(results)) {
+            return;
+        }
+
+        final Set<CaseResults> resultSet = AbstractTableDataMiner.identitySet(results);
+        this.rows.removeIf(row -> !resultSet.contains(row));
+        this.rowVersions.keySet().retainAll(resultSet);
+
+        final Set<CaseResults> displayed = AbstractTableDataMiner.identitySet(this.rows);
+        this.rows.addAll(results.stream().filter(result -> !displayed.contains(result)).toList());
+    }
+
+    private static Set<CaseResults> identitySet(final Collection<? extends CaseResults> results) {
+        final Set<CaseResults> set = Collections.newSetFromMap(new IdentityHashMap<>());
+        set.addAll(results);
+        return set;
+    }
+
+    /**
+     * Invalidates the displayed rows of the updated cases, so that they are sorted and rendered again.
+     */
+    private void resultsChanged(final ResultModel model, final ResultChange change) {
+        final List<DiscreteCaseResults> updated = change.updated().stream().map(model::getDiscreteResult)
+                .flatMap(Optional::stream).toList();
+        if (!updated.isEmpty()) {
+            Platform.runLater(() -> updated.forEach(this::invalidateRow));
+        }
+    }
+
+    /**
+     * Makes the given row sorted and rendered again, if displayed. Must be called in the JavaFX application thread.
+     *
+     * @param row
+     *         the row to invalidate
+     */
+    protected final void invalidateRow(final CaseResults row) {
+        final IntegerProperty version = this.rowVersions.get(row);
+        if (version != null) {
+            version.set(version.get() + 1);
+        }
+    }
+
+    /**
+     * @return the variables and outputs defining the columns
+     */
+    private List<String> computeColumnKeys() {
+        final List<String> keys = new ArrayList<>(this.getVariables().stream().sorted().toList());
+        // Separates the variables from the outputs
+        keys.add(AbstractTableDataMiner.VAR_PREFIX);
+        keys.addAll(this.getOutputNames());
+        keys.add(String.valueOf(this.getMainOutputName()));
+        return keys;
     }
 
     /**
@@ -299,13 +414,24 @@ abstract class AbstractTableDataMiner<R extends CaseResults, C> extends Abstract
         return sb.toString();
     }
 
-    public void exportTo(File file, final String extension) {
+    /**
+     * Exports the results of the table in background, directly from the result model.
+     *
+     * @param file
+     *         the file to write, the extension being added if missing
+     * @param extension
+     *         the export format
+     * @return the task exporting the results, returning {@code true} if completed or {@code false} if cancelled
+     */
+    public Task<Boolean> exportTo(File file, final String extension) {
+        final Optional<ExportFormat> format = ExportFormat.fromExtension(extension);
+        final String fileExtension = format.map(ExportFormat::getExtension).orElse(extension.toLowerCase());
         if (!file.getName().contains(".")) {
             final File originalFile = new File(file.getAbsolutePath());
-            file = new File(file.getAbsolutePath() + "." + extension.toLowerCase());
+            file = new File(file.getAbsolutePath() + "." + fileExtension);
             int cmp = 1;
             while (file.exists()) {
-                file = new File(originalFile.getAbsolutePath() + "(" + cmp + ")" + "." + extension.toLowerCase());
+                file = new File(originalFile.getAbsolutePath() + "(" + cmp + ")" + "." + fileExtension);
                 cmp++;
             }
         }
@@ -318,83 +444,53 @@ abstract class AbstractTableDataMiner<R extends CaseResults, C> extends Abstract
             outputNames.add(column.getText());
         }
 
-        if (extension.equalsIgnoreCase("csv")) {
-            // Export as CSV
-            this.exportToCsv(file, variableNames, outputNames);
-        } else if (extension.equalsIgnoreCase("xls") || extension.equalsIgnoreCase("xlsx")) {
-            // Export as XLS/XLSX
-            this.exportToXlsx(file, variableNames, outputNames);
-        } else {
-            LoggerFactory.getLogger(this.getClass()).error("Unsupported file format: {}", extension);
-        }
-    }
-
-    private void exportToCsv(final File file, final List<String> variableNames, final List<String> outputNames) {
-        try (final FileWriter fw = new FileWriter(file)) {
-            final CharSequence delimiter = ";";
-
-            // Write header
-            fw.write(
-                    Stream.concat(variableNames.stream(), outputNames.stream()).collect(Collectors.joining(delimiter)));
-            fw.write(System.lineSeparator());
-
-            // Write rows
-            for (final CaseResults caseResult : this.valuesTable.getItems()) {
-                final StringBuilder sb = new StringBuilder();
-
-                for (final String variableName : variableNames) {
-                    sb.append(caseResult.getValueForVariable(variableName));
-                    sb.append(delimiter);
+        // The cases are read from the model, not from the table
+        final ResultsExporter exporter = new ResultsExporter(this.getResults(), variableNames, outputNames,
+                this::getResultForColumn);
+        final File exportFile = file;
+        final Task<Boolean> task = new Task<>() {
+            @Override
+            protected Boolean call() throws Exception {
+                if (format.isEmpty()) {
+                    LoggerFactory.getLogger(AbstractTableDataMiner.this.getClass())
+                            .error("Unsupported file format: {}", extension);
+                    return false;
                 }
-
-                for (final String columnName : outputNames) {
-                    final Object result = this.getResultForColumn(caseResult, columnName);
-                    sb.append(this.toString(result));
-                    sb.append(delimiter);
-                }
-
-                fw.write(sb.toString());
-                fw.write(System.lineSeparator());
+                return exporter.export(exportFile, format.get(), fraction -> this.updateProgress(fraction, 1d),
+                        this::isCancelled);
             }
-        } catch (final IOException e) {
-            LoggerFactory.getLogger(this.getClass()).error(e.getMessage());
-        }
+        };
+        task.setOnFailed(e -> LoggerFactory.getLogger(this.getClass()).error(task.getException().getMessage()));
+        Platform.runLater(() -> this.showExportProgress(task));
+
+        final Thread exportThread = new Thread(task, "FunzDataView-export");
+        exportThread.setDaemon(true);
+        exportThread.start();
+        return task;
     }
 
-    private void exportToXlsx(final File file, final List<String> variableNames, final List<String> outputNames) {
-        try (final Workbook workbook = new XSSFWorkbook(); // For .xls, use HSSFWorkbook
-                final FileOutputStream fos = new FileOutputStream(file)) {
-
-            final Sheet sheet = workbook.createSheet("Export");
-            int rowIndex = 0;
-
-            // Write header
-            final Row headerRow = sheet.createRow(rowIndex++);
-            int cellIndex = 0;
-            for (final String name : Stream.concat(variableNames.stream(), outputNames.stream())
-                    .toArray(String[]::new)) {
-                headerRow.createCell(cellIndex++).setCellValue(name);
-            }
-
-            // Write rows
-            for (final CaseResults caseResult : this.valuesTable.getItems()) {
-                final Row row = sheet.createRow(rowIndex++);
-                cellIndex = 0;
+    /**
+     * Displays the progress of the given export task in the toolbar, with a button to cancel it.
+     *
+     * @param task
+     *         the export task
+     */
+    private void showExportProgress(final Task<Boolean> task) {
+        if (task.isDone()) {
+            return;
+        }
 
-                for (final String variableName : variableNames) {
-                    row.createCell(cellIndex++).setCellValue(caseResult.getValueForVariable(variableName));
-                }
+        final ProgressBar progressBar = new ProgressBar();
+        progressBar.progressProperty().bind(task.progressProperty());
+        final Button cancelButton = new Button(ResultsDictionary.CANCEL.getString());
+        cancelButton.setOnAction(e -> task.cancel(false));
+        this.toolbar.getChildren().addAll(progressBar, cancelButton);
 
-                for (final String columnName : outputNames) {
-                    final Object result = this.getResultForColumn(caseResult, columnName);
-                    row.createCell(cellIndex++).setCellValue(this.toString(result));
-                }
+        task.runningProperty().addListener((o, wasRunning, isRunning) -> {
+            if (!isRunning.booleanValue()) {
+                this.toolbar.getChildren().removeAll(progressBar, cancelButton);
             }
-
-            workbook.write(fos);
-        } catch (final IOException e) {
-            LoggerFactory.getLogger(this.getClass()).error(e.getMessage());
-        }
+        });
     }
 
     protected Object getResultForColumn(final CaseResults caseResult, final String columnName) {
@@ -436,7 +532,7 @@ abstract class AbstractTableDataMiner<R extends CaseResults, C> extends Abstract
     }
 
     /**
-     * Save the table in a CSV file
+     * Save the table in a file of the given format
      */
     public void exportTo(final String extension) {
 
@@ -448,11 +544,9 @@ abstract class AbstractTableDataMiner<R extends CaseResults, C> extends Abstract
             fileChooser.setInitialDirectory(lastSaveDir);
         }
         fileChooser.setTitle(ArtTkDictionary.SAVE.getString());
-        if (extension.equals("CSV")) {
-            fileChooser.getExtensionFilters().addAll(new ExtensionFilter("CSV files (*.csv)", "*.csv"));
-        } else if (extension.equals("XLS")) {
-            fileChooser.getExtensionFilters().addAll(new ExtensionFilter("XLS files (*.xls)", "*.xls"));
-        }
+        ExportFormat.fromExtension(extension).ifPresent(format -> fileChooser.getExtensionFilters().add(
+                new ExtensionFilter(format.name() + " files (*." + format.getExtension() + ")",
+                        "*." + format.getExtension())));
 
         final File file = fileChooser.showSaveDialog(null);
         if (file == null) {
@@ -462,19 +556,6 @@ abstract class AbstractTableDataMiner<R extends CaseResults, C> extends Abstract
         }
     }
 
-    private String toString(final Object arr) {
-        if (arr instanceof final Object[] obj) {
-            return Arrays.toString(obj);
-        } else {
-            if (arr instanceof final double[] doubles) {
-                return Arrays.toString(doubles);
-            } else {
-                return arr.toString();
-            }
-
-        }
-    }
-
     private void recomputeColumns() {
         this.allColumns.clear();
         this.valuesTable.getColumns().clear();
@@ -567,6 +648,8 @@ abstract class AbstractTableDataMiner<R extends CaseResults, C> extends Abstract
      */
     public void setDefaultOutputSelection(final List<String> outputs) {
         this.defaultOutputSelection = outputs.stream().map(n -> new ColumnVisibility(n, true)).toList();
+        // Columns must be recomputed to apply the selection
+        this.columnKeys = null;
     }
 
     /**
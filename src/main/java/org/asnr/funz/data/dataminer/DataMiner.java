@@ -54,4 +54,11 @@ public interface DataMiner {
      * @return the {@link Node} holding the renderer.
      */
     Node getView();
+
+    /**
+     * Releases the resources of this {@link DataMiner} once it is no longer displayed.
+     */
+    default void dispose() {
+        // Nothing to release by default
+    }
 }
@@ -0,0 +1,229 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.dataminer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.asnr.funz.data.model.DiscreteCaseResults;
+import org.asnr.funz.data.model.ResultChange;
+import org.asnr.funz.data.model.ResultChangeListener;
+import org.asnr.funz.data.model.ResultModel;
+
+import javafx.application.Platform;
+
+/**
+ * Cache of the results displayed instead of a missing result ("?"), resolved once per case and column outside of the
+ * JavaFX application thread.<br>
+ * When one of the attached models changes, only the fallback results of the updated or removed cases, or provided by
+ * them, are dropped, as well as the unresolved ones of the cases computed with the same inputs as an added or updated
+ * case, which may now provide the result. The whole cache is emptied when a model is reset.
+ *
+ * @author Arnaud Trouche - Artenum SARL
+ */
+final class FallbackResults implements ResultChangeListener {
+
+    /**
+     * Key of a cached result.
+     *
+     * @param result
+     *         the case results missing a value, compared by identity
+     * @param column
+     *         the name of the column
+     */
+    private record Key(DiscreteCaseResults result, String column) {
+    }
+
+    /**
+     * Resolved fallback results, empty when no other case provides the result.
+     */
+    private final Map<Key, Optional<DiscreteCaseResults>> resolved = new HashMap<>();
+
+    /**
+     * Keys whose resolution is queued.
+     */
+    private final Set<Key> pending = new HashSet<>();
+
+    /**
+     * Models whose changes empty the cache.
+     */
+    private final Set<ResultModel> models = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Thread resolving the fallback results.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Finds the fallback result of a case for a column.
+     */
+    private final BiFunction<DiscreteCaseResults, String, Optional<DiscreteCaseResults>> resolver;
+
+    /**
+     * Gives the cases of the other projects computed with the same inputs as a case.
+     */
+    private final Function<DiscreteCaseResults, Collection<DiscreteCaseResults>> similarResults;
+
+    /**
+     * Called in the JavaFX application thread when the fallback results of a case changed.
+     */
+    private final Consumer<DiscreteCaseResults> onResolved;
+
+    /**
+     * @param theResolver
+     *         finds the fallback result of a case for a column
+     * @param theSimilarResults
+     *         gives the cases of the other projects computed with the same inputs as a case
+     * @param theOnResolved
+     *         called in the JavaFX application thread when the fallback results of a case changed
+     */
+    FallbackResults(final BiFunction<DiscreteCaseResults, String, Optional<DiscreteCaseResults>> theResolver,
+            final Function<DiscreteCaseResults, Collection<DiscreteCaseResults>> theSimilarResults,
+            final Consumer<DiscreteCaseResults> theOnResolved) {
+        this.resolver = theResolver;
+        this.similarResults = theSimilarResults;
+        this.onResolved = theOnResolved;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "FunzDataView-fallback-results");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Empties the cache when the given model changes, if not already done.
+     *
+     * @param model
+     *         the {@link ResultModel} to listen to
+     */
+    synchronized void attach(final ResultModel model) {
+        if (this.models.add(model)) {
+            model.addResultChangeListener(this);
+        }
+    }
+
+    /**
+     * Returns the cached fallback result, or queues its resolution if it is not known yet.
+     *
+     * @param result
+     *         the case results missing a value
+     * @param column
+     *         the name of the column
+     * @return the case results providing the value, or {@code null} if none or not resolved yet
+     */
+    synchronized DiscreteCaseResults get(final DiscreteCaseResults result, final String column) {
+        final Key key = new Key(result, column);
+        final Optional<DiscreteCaseResults> fallback = this.resolved.get(key);
+        if (fallback != null) {
+            return fallback.orElse(null);
+        }
+
+        if (!this.executor.isShutdown() && this.pending.add(key)) {
+            this.executor.execute(() -> this.resolve(key));
+        }
+        return null;
+    }
+
+    private void resolve(final Key key) {
+        final Optional<DiscreteCaseResults> fallback = this.resolver.apply(key.result(), key.column());
+        synchronized (this) {
+            if (!this.pending.remove(key)) {
+                // The cache was emptied meanwhile: the result may be outdated
+                return;
+            }
+            this.resolved.put(key, fallback);
+        }
+        Platform.runLater(() -> this.onResolved.accept(key.result()));
+    }
+
+    @Override
+    public void resultsChanged(final ResultModel model, final ResultChange change) {
+        // Looked up before locking: the cases whose missing results the new results may now provide
+        final Set<DiscreteCaseResults> provided = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (!change.reset()) {
+            for (final Integer index : change.added()) {
+                model.getDiscreteResult(index).ifPresent(result -> provided.addAll(this.similarResults.apply(result)));
+            }
+            for (final Integer index : change.updated()) {
+                model.getDiscreteResult(index).ifPresent(result -> provided.addAll(this.similarResults.apply(result)));
+            }
+        }
+
+        final List<DiscreteCaseResults> outdated = new ArrayList<>();
+        synchronized (this) {
+            if (change.reset()) {
+                this.resolved.keySet().forEach(key -> outdated.add(key.result()));
+                this.pending.forEach(key -> outdated.add(key.result()));
+                this.resolved.clear();
+                this.pending.clear();
+            } else {
+                final Set<Integer> changed = new HashSet<>(change.updated());
+                changed.addAll(change.removed());
+
+                // The indices of another model may match: dropping its results too is only a useless resolution
+                this.resolved.entrySet().removeIf(entry -> {
+                    final boolean drop = FallbackResults.isChanged(entry.getKey().result(), changed)
+                            || entry.getValue().map(fallback -> FallbackResults.isChanged(fallback, changed))
+                            .orElseGet(() -> provided.contains(entry.getKey().result()));
+                    if (drop) {
+                        outdated.add(entry.getKey().result());
+                    }
+                    return drop;
+                });
+                this.pending.removeIf(key -> {
+                    final boolean drop = FallbackResults.isChanged(key.result(), changed)
+                            || provided.contains(key.result());
+                    if (drop) {
+                        outdated.add(key.result());
+                    }
+                    return drop;
+                });
+            }
+        }
+
+        if (!outdated.isEmpty()) {
+            Platform.runLater(() -> outdated.forEach(this.onResolved));
+        }
+    }
+
+    /**
+     * Stops listening to the models and resolving the results.
+     */
+    synchronized void close() {
+        this.models.forEach(model -> model.removeResultChangeListener(this));
+        this.models.clear();
+        this.resolved.clear();
+        this.pending.clear();
+        this.executor.shutdownNow();
+    }
+
+    private static boolean isChanged(final DiscreteCaseResults result, final Set<Integer> changed) {
+        return changed.contains(result.getCase().getIndex());
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.dataminer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.asnr.funz.data.model.DiscreteCaseResults;
+import org.asnr.funz.data.model.ResultChange;
+import org.asnr.funz.data.model.ResultChangeListener;
+import org.asnr.funz.data.model.ResultModel;
+
+/**
+ * Index of the cases of several {@link ResultModel}s by the values of their input variables, used to find the cases
+ * of other projects computed with the same inputs.<br>
+ * An index is built the first time a set of variables is looked up, then maintained as cases are added. It is rebuilt
+ * when cases are removed or when a model is reset.
+ *
+ * @author Arnaud Trouche - Artenum SARL
+ */
+final class SimilarResultsIndex implements ResultChangeListener {
+
+    /**
+     * Indexed models.
+     */
+    private final Set<ResultModel> models = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * For each sorted list of variable names, the cases by values of these variables.
+     */
+    private final Map<List<String>, Map<List<String>, List<DiscreteCaseResults>>> indexes = new HashMap<>();
+
+    /**
+     * Whether the index is closed, no model being attached anymore.
+     */
+    private boolean closed;
+
+    /**
+     * Indexes the cases of the given model, if not already indexed.
+     *
+     * @param model
+     *         the {@link ResultModel} to index
+     */
+    synchronized void attach(final ResultModel model) {
+        if (!this.closed && this.models.add(model)) {
+            model.addResultChangeListener(this);
+            this.indexes.clear();
+        }
+    }
+
+    /**
+     * Stops indexing the models, so that this index is no longer referenced by them.
+     */
+    synchronized void close() {
+        this.closed = true;
+        this.models.forEach(model -> model.removeResultChangeListener(this));
+        this.models.clear();
+        this.indexes.clear();
+    }
+
+    /**
+     * @param originalResult
+     *         the case results to look for
+     * @return the other indexed cases having the same values for the input variables of the given case
+     */
+    synchronized List<DiscreteCaseResults> getSimilarResults(final DiscreteCaseResults originalResult) {
+        final List<String> names = originalResult.getCase().getInputValues().keySet().stream().sorted().toList();
+        final Map<List<String>, List<DiscreteCaseResults>> index = this.indexes.computeIfAbsent(names,
+                this::buildIndex);
+
+        final List<DiscreteCaseResults> similarResults = new ArrayList<>(
+                index.getOrDefault(SimilarResultsIndex.key(originalResult, names), List.of()));
+        similarResults.removeIf(result -> result == originalResult);
+        return similarResults;
+    }
+
+    @Override
+    public synchronized void resultsChanged(final ResultModel model, final ResultChange change) {
+        if (change.reset() || !change.removed().isEmpty()) {
+            this.indexes.clear();
+        } else {
+            // The input variables of a case never change: only the added cases must be indexed
+            for (final Integer index : change.added()) {
+                model.getDiscreteResult(index).ifPresent(this::add);
+            }
+        }
+    }
+
+    private void add(final DiscreteCaseResults result) {
+        this.indexes.forEach((names, index) -> index.computeIfAbsent(SimilarResultsIndex.key(result, names),
+                k -> new ArrayList<>()).add(result));
+    }
+
+    private Map<List<String>, List<DiscreteCaseResults>> buildIndex(final List<String> names) {
+        final Map<List<String>, List<DiscreteCaseResults>> index = new HashMap<>();
+        for (final ResultModel model : this.models) {
+            for (final DiscreteCaseResults result : model.getDiscreteResults()) {
+                index.computeIfAbsent(SimilarResultsIndex.key(result, names), k -> new ArrayList<>()).add(result);
+            }
+        }
+        return index;
+    }
+
+    private static List<String> key(final DiscreteCaseResults result, final Collection<String> names) {
+        final String[] values = new String[names.size()];
+        int i = 0;
+        for (final String name : names) {
+            values[i++] = result.getValueForVariable(name);
+        }
+        return Arrays.asList(values);
+    }
+
+}
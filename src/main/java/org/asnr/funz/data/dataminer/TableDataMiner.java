@@ -14,15 +14,14 @@
  */
 package org.asnr.funz.data.dataminer;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import org.asnr.funz.data.model.CaseResults;
 import org.asnr.funz.data.model.DiscreteCaseResults;
-import org.asnr.funz.data.model.ResultModel;
 import org.asnr.funz.data.view.MultipleResultTableCell;
 import org.asnr.funz.data.view.utils.TableViewUtils;
 import org.asnr.funz.model.ExtendedProject;
@@ -36,6 +35,16 @@ import javafx.scene.control.TableColumn;
  */
 public class TableDataMiner extends AbstractTableDataMiner<DiscreteCaseResults, DiscreteCaseResults> {
 
+    /**
+     * Index of the cases of all projects by input values.
+     */
+    private final SimilarResultsIndex similarResultsIndex;
+
+    /**
+     * Results displayed instead of the missing results, resolved outside of the JavaFX application thread.
+     */
+    private final FallbackResults fallbackResults;
+
     /**
      * Default constructor.
      *
@@ -44,25 +53,30 @@ public class TableDataMiner extends AbstractTableDataMiner<DiscreteCaseResults,
      */
     public TableDataMiner(final ExtendedProject currentProject) {
         super(currentProject);
+        this.similarResultsIndex = new SimilarResultsIndex();
+        // Not attaching the models while one of them notifies its listeners: they are attached on resolution
+        this.fallbackResults = new FallbackResults(this::findFallbackResult,
+                this.similarResultsIndex::getSimilarResults, this::invalidateRow);
     }
 
+    /**
+     * Stops resolving the fallback results and indexing the similar results.
+     */
     @Override
-    protected Collection<DiscreteCaseResults> getResults() {
-        return this.getResultModel().getDiscreteResults();
+    public void dispose() {
+        super.dispose();
+        this.fallbackResults.close();
+        this.similarResultsIndex.close();
     }
 
-    private Collection<DiscreteCaseResults> getAllResults() {
-        final Collection<DiscreteCaseResults> discreteCaseResults = new ArrayList<>();
-        for (final ResultModel resultModel : this.getResultModels()) {
-            discreteCaseResults.addAll(resultModel.getDiscreteResults());
-        }
-        return discreteCaseResults;
+    @Override
+    protected Collection<DiscreteCaseResults> getResults() {
+        return this.getResultModel().getDiscreteResults();
     }
 
     @Override
     protected Object getResultForColumn(final CaseResults originalResult, final String columnName) {
-        return TableDataMiner.getResultForColumnInAllProjects((DiscreteCaseResults) originalResult, columnName,
-                this.getAllResults());
+        return this.getResultForColumnInAllProjects((DiscreteCaseResults) originalResult, columnName);
     }
 
     /**
@@ -74,37 +88,44 @@ public class TableDataMiner extends AbstractTableDataMiner<DiscreteCaseResults,
      *         case results associated to the original project
      * @param columnName
      *         column name to extract
-     * @param allResults
-     *         results of all projects
      * @return an Object result
      */
-    private static Object getResultForColumnInAllProjects(final DiscreteCaseResults originalResult,
-            final String columnName, final Collection<DiscreteCaseResults> allResults) {
+    private Object getResultForColumnInAllProjects(final DiscreteCaseResults originalResult,
+            final String columnName) {
         final Object resultObj = originalResult.getResult(columnName);
         if (TableDataMiner.isResultValid(resultObj)) {
             return resultObj;
         }
 
-        final Map<String, Object> originalInputValues = originalResult.getCase().getInputValues();
-        for (final DiscreteCaseResults otherResults : allResults) {
-            if (!otherResults.equals(originalResult)) {
-                boolean same = true;
-                for (final Map.Entry<String, Object> entry : originalInputValues.entrySet()) {
-                    if (!otherResults.getValueForVariable(entry.getKey())
-                            .equals(originalResult.getValueForVariable(entry.getKey()))) {
-                        same = false;
-                        break;
-                    }
-                }
-                if (same) {
-                    final Object result = otherResults.getResult(columnName);
-                    if (TableDataMiner.isResultValid(result)) {
-                        return result;
-                    }
-                }
-            }
-        }
-        return originalResult.getResult(columnName);
+        return this.findFallbackResult(originalResult, columnName).map(other -> other.getResult(columnName))
+                .orElse(resultObj);
+    }
+
+    /**
+     * @param originalResult
+     *         case results associated to the original project
+     * @param columnName
+     *         column name to extract
+     * @return the first case results of all projects, computed with the same inputs, having a valid result for the
+     *         column
+     */
+    private Optional<DiscreteCaseResults> findFallbackResult(final DiscreteCaseResults originalResult,
+            final String columnName) {
+        return this.getSimilarResults(originalResult).stream()
+                .filter(other -> TableDataMiner.isResultValid(other.getResult(columnName))).findFirst();
+    }
+
+    /**
+     * @param originalResult
+     *         case results missing a value
+     * @param columnName
+     *         column name
+     * @return the cached case results providing the value, or {@code null} if none or not resolved yet
+     */
+    private DiscreteCaseResults getFallbackResult(final DiscreteCaseResults originalResult,
+            final String columnName) {
+        this.getResultModels().forEach(this.fallbackResults::attach);
+        return this.fallbackResults.get(originalResult, columnName);
     }
 
     private static boolean isResultValid(final Object result) {
@@ -112,31 +133,16 @@ public class TableDataMiner extends AbstractTableDataMiner<DiscreteCaseResults,
     }
 
     /**
-     * Get results that has same variables values than the originalResult
+     * Get results of all projects that has same variables values than the originalResult
      *
      * @param originalResult
-     * @return
+     *         case results associated to the original project
+     * @return the similar results
      */
-    public static Collection<DiscreteCaseResults> getSimilarResults(final DiscreteCaseResults originalResult,
-            final Collection<DiscreteCaseResults> allResults) {
-        final List<DiscreteCaseResults> similarResults = new ArrayList<>();
-        final Map<String, Object> originalInputValues = originalResult.getCase().getInputValues();
-        for (final DiscreteCaseResults otherResults : allResults) {
-            if (!otherResults.equals(originalResult)) {
-                boolean same = true;
-                for (final Map.Entry<String, Object> entry : originalInputValues.entrySet()) {
-                    if (!otherResults.getValueForVariable(entry.getKey())
-                            .equals(originalResult.getValueForVariable(entry.getKey()))) {
-                        same = false;
-                        break;
-                    }
-                }
-                if (same) {
-                    similarResults.add(otherResults);
-                }
-            }
-        }
-        return similarResults;
+    public Collection<DiscreteCaseResults> getSimilarResults(final DiscreteCaseResults originalResult) {
+        // Projects may be added after the creation of the data miner
+        this.getResultModels().forEach(this.similarResultsIndex::attach);
+        return this.similarResultsIndex.getSimilarResults(originalResult);
     }
 
     @Override
@@ -148,8 +154,9 @@ public class TableDataMiner extends AbstractTableDataMiner<DiscreteCaseResults,
     protected TableColumn<CaseResults, DiscreteCaseResults> createColumn(final String name) {
         final TableColumn<CaseResults, DiscreteCaseResults> resultsColumn = new TableColumn<>(name);
         resultsColumn.setCellValueFactory(c -> (DiscreteCaseResults) c.getValue());
-        final Collection<DiscreteCaseResults> allResults = this.getAllResults();
-        resultsColumn.setCellFactory(param -> new MultipleResultTableCell(name, allResults, this.getColumnsFormat()));
+        resultsColumn.setCellFactory(
+                param -> new MultipleResultTableCell(name, result -> this.getFallbackResult(result, name),
+                        this.getColumnsFormat()));
         resultsColumn.setComparator(TableViewUtils.createDiscretCaseResultsColumnComparator(name));
         return resultsColumn;
     }
@@ -15,36 +15,99 @@
 package org.asnr.funz.data.dataminer;
 
 import java.io.File;
+import java.util.Collection;
 import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
+import org.asnr.funz.data.model.ResultChange;
+import org.asnr.funz.data.model.ResultChangeListener;
+import org.asnr.funz.data.model.ResultModel;
+import org.asnr.funz.data.view.HtmlTemplate;
 import org.asnr.funz.data.view.HtmlVariablesUtils;
+import org.asnr.funz.data.view.JsonUtils;
+import org.asnr.funz.data.view.TemplateRegistry;
 import org.asnr.funz.model.ExtendedProject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javafx.application.Platform;
 import javafx.scene.Node;
 import javafx.scene.web.WebView;
+import netscape.javascript.JSException;
 
 /**
- * Data miner to display a HTML file.
+ * Data miner to display a HTML file.<br>
+ * The page is loaded once. Then, if it defines a {@code funzDataView.update(delta)} JavaScript function and the data
+ * miner has a rows supplier, the changed cases are pushed to it instead of reloading the page. The delta is a JSON
+ * object <code>{"rows": [...], "removed": [...]}</code>: {@code rows} is given by the rows supplier for the indices
+ * of the added or updated cases, and {@code removed} lists the indices of the removed cases. The page is still
+ * reloaded when the variables change, the whole model is reset or the template is reloaded.
  *
  * @author Arnaud TROUCHE - Artenum SARL
  */
 public class WebViewDataMiner extends AbstractDataMiner implements DataMiner {
 
+    private static final Logger log = LoggerFactory.getLogger(WebViewDataMiner.class);
+
+    /**
+     * Script returning {@code true} if the page accepts the deltas.
+     */
+    private static final String BRIDGE_CHECK = "typeof funzDataView === 'object' && funzDataView !== null"
+            + " && typeof funzDataView.update === 'function'";
+
     /**
      * The main view.
      */
     private final WebView view;
 
     /**
-     * The file content is loaded into this variable.
+     * The absolute template file, compiled by the {@link TemplateRegistry}.
      */
-    private final String templateContent;
+    private final File templateFile;
 
     private final Map<HtmlVariablesUtils.Variable, Supplier<String>> valuesMap;
 
+    /**
+     * Gives the JSON array of the rows of the given cases, or {@code null} if they cannot be pushed; {@code null} if
+     * the page is always reloaded.
+     */
+    private final Function<Collection<Integer>, String> rowsSupplier;
+
+    /**
+     * Listener of the model changes, registered if the rows are pushed.
+     */
+    private final ResultChangeListener resultChangeListener;
+
+    /**
+     * Indices of the cases added or updated since the page was loaded or last updated.
+     */
+    private final Set<Integer> changedRows;
+
+    /**
+     * Indices of the cases removed since the page was loaded or last updated.
+     */
+    private final Set<Integer> removedRows;
+
+    /**
+     * Whether the page must be reloaded at the next update, guarded by the changed rows.
+     */
+    private boolean reloadNeeded;
+
+    /**
+     * Whether the loaded page accepts the deltas.
+     */
+    private volatile boolean bridgeReady;
+
+    /**
+     * Whether a page is being loaded: the changes are then kept to be pushed once loaded.
+     */
+    private volatile boolean pageLoading;
+
     /**
      * @param file
      *         the file to load
@@ -56,7 +119,7 @@ public class WebViewDataMiner extends AbstractDataMiner implements DataMiner {
     }
 
     /**
-     * Default constructor.
+     * Creates a data miner reloading the page for each refresh.
      *
      * @param project
      *         the current {@link ExtendedProject}
@@ -69,21 +132,73 @@ public class WebViewDataMiner extends AbstractDataMiner implements DataMiner {
      */
     public WebViewDataMiner(final ExtendedProject project, final File htmlFile,
             final Supplier<String> parameterSupplier, final Supplier<String> valuesSupplier) {
+        this(project, htmlFile, parameterSupplier, valuesSupplier, null, null);
+    }
+
+    /**
+     * Default constructor.
+     *
+     * @param project
+     *         the current {@link ExtendedProject}
+     * @param htmlFile
+     *         the HTML file
+     * @param parameterSupplier
+     *         extracts the correct parameter names from the project
+     * @param valuesSupplier
+     *         extracts the values from the model as string
+     * @param dataSupplier
+     *         extracts the parameters and the values as typed columns, {@code null} if not available
+     * @param rowsSupplier
+     *         gives the JSON array of the rows of the given discrete cases, or {@code null} if they cannot be pushed
+     *         and the page is to be reloaded; {@code null} to always reload the page
+     */
+    public WebViewDataMiner(final ExtendedProject project, final File htmlFile,
+            final Supplier<String> parameterSupplier, final Supplier<String> valuesSupplier,
+            final Supplier<String> dataSupplier, final Function<Collection<Integer>, String> rowsSupplier) {
         super(project, WebViewDataMiner.getName(htmlFile));
 
         final File templateFile = htmlFile.getAbsoluteFile();
-        this.templateContent = HtmlVariablesUtils.getTemplateContent(templateFile);
+        this.templateFile = templateFile;
 
         // Map providing the various variable values
         this.valuesMap = new EnumMap<>(HtmlVariablesUtils.Variable.class);
         this.valuesMap.put(HtmlVariablesUtils.Variable.PARAMETERS, parameterSupplier);
         this.valuesMap.put(HtmlVariablesUtils.Variable.VALUES, valuesSupplier);
+        if (dataSupplier != null) {
+            this.valuesMap.put(HtmlVariablesUtils.Variable.DATA, dataSupplier);
+        }
         this.valuesMap.put(HtmlVariablesUtils.Variable.NAME, this::getName);
         this.valuesMap.put(HtmlVariablesUtils.Variable.PATH, templateFile::getParent);
         this.valuesMap.put(HtmlVariablesUtils.Variable.DIR, project.getResultsDir()::getAbsolutePath);
         this.valuesMap.put(HtmlVariablesUtils.Variable.BASE, project.getResultsDir()::getAbsolutePath);
 
+        this.rowsSupplier = rowsSupplier;
+        this.resultChangeListener = this::resultsChanged;
+        this.changedRows = new HashSet<>();
+        this.removedRows = new HashSet<>();
+        this.reloadNeeded = true;
+
         this.view = new WebView();
+        if (rowsSupplier != null) {
+            this.view.getEngine().getLoadWorker().stateProperty().addListener((obs, oldState, state) -> {
+                switch (state) {
+                case SUCCEEDED -> {
+                    this.pageLoading = false;
+                    this.bridgeReady = Boolean.TRUE.equals(
+                            this.view.getEngine().executeScript(WebViewDataMiner.BRIDGE_CHECK));
+                    if (this.bridgeReady) {
+                        // Pushes the changes received while loading
+                        this.update();
+                    }
+                }
+                case FAILED, CANCELLED -> this.pageLoading = false;
+                default -> {
+                    // Still loading
+                }
+                }
+            });
+            this.getResultModel().addResultChangeListener(this.resultChangeListener);
+        }
         Platform.runLater(this::update);
     }
 
@@ -94,7 +209,7 @@ public class WebViewDataMiner extends AbstractDataMiner implements DataMiner {
 
     @Override
     public void refreshVariables() {
-        this.update();
+        this.reload();
     }
 
     @Override
@@ -107,9 +222,104 @@ public class WebViewDataMiner extends AbstractDataMiner implements DataMiner {
         return this.view;
     }
 
+    /**
+     * @return the absolute HTML template file
+     */
+    public File getTemplateFile() {
+        return this.templateFile;
+    }
+
+    /**
+     * Stops listening to the model.
+     */
+    @Override
+    public void dispose() {
+        this.getResultModel().removeResultChangeListener(this.resultChangeListener);
+    }
+
+    /**
+     * Reloads the page with the current content of the template.
+     */
+    public void reloadTemplate() {
+        this.reload();
+    }
+
+    private void resultsChanged(final ResultModel model, final ResultChange change) {
+        synchronized (this.changedRows) {
+            if (change.reset()) {
+                this.reloadNeeded = true;
+            }
+            this.removedRows.removeAll(change.added());
+            this.changedRows.addAll(change.added());
+            this.changedRows.addAll(change.updated());
+            this.changedRows.removeAll(change.removed());
+            this.removedRows.addAll(change.removed());
+        }
+    }
+
+    private void reload() {
+        synchronized (this.changedRows) {
+            this.reloadNeeded = true;
+        }
+        this.update();
+    }
+
     private void update() {
-        final String contentToLoad = HtmlVariablesUtils.replaceVariables(this.templateContent, this.valuesMap);
-        Platform.runLater(() -> this.view.getEngine().loadContent(contentToLoad));
+        final List<Integer> rows;
+        final List<Integer> removed;
+        final boolean reload;
+        synchronized (this.changedRows) {
+            if (this.rowsSupplier != null && this.pageLoading && !this.reloadNeeded) {
+                // Pushed once the page is loaded
+                return;
+            }
+
+            // Cleared before rendering: a change meanwhile is pushed at the next update
+            reload = this.rowsSupplier == null || !this.bridgeReady || this.reloadNeeded;
+            rows = List.copyOf(this.changedRows);
+            removed = List.copyOf(this.removedRows);
+            this.changedRows.clear();
+            this.removedRows.clear();
+            this.reloadNeeded = false;
+        }
+
+        if (reload) {
+            this.bridgeReady = false;
+            this.pageLoading = this.rowsSupplier != null;
+            final HtmlTemplate template = TemplateRegistry.getShared().getTemplate(this.templateFile);
+            final String contentToLoad = template.render(this.valuesMap);
+            Platform.runLater(() -> this.view.getEngine().loadContent(contentToLoad));
+        } else if (!rows.isEmpty() || !removed.isEmpty()) {
+            final String rowsJson = this.rowsSupplier.apply(rows);
+            if (rowsJson == null) {
+                // The columns of the page changed
+                this.reload();
+                return;
+            }
+            final StringBuilder script = new StringBuilder("funzDataView.update({\"rows\":");
+            script.append(rowsJson).append(",\"removed\":");
+            JsonUtils.appendValue(script, removed).append("})");
+            Platform.runLater(() -> this.push(script.toString()));
+        }
+    }
+
+    /**
+     * Pushes a delta to the page, reloading it if the page fails to apply it.
+     */
+    private void push(final String script) {
+        if (!this.bridgeReady) {
+            // Reloaded meanwhile: the new page is rendered from the current model
+            return;
+        }
+        try {
+            this.view.getEngine().executeScript(script);
+        } catch (final JSException e) {
+            WebViewDataMiner.log.warn("Unable to update view '{}', reloading it: {}", this.getName(), e.getMessage());
+            synchronized (this.changedRows) {
+                this.reloadNeeded = true;
+            }
+            this.update();
+        }
     }
 
 }
@@ -0,0 +1,93 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.export;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Writes the results as CSV, with {@code ;} as delimiter.
+ *
+ * @author Arnaud Trouche - Artenum SARL
+ */
+final class CsvResultsWriter implements ResultsWriter {
+
+    private static final String DELIMITER = ";";
+
+    private final BufferedWriter writer;
+
+    /**
+     * @param file
+     *         the file to write
+     * @throws IOException
+     *         if unable to open the file
+     */
+    CsvResultsWriter(final File file) throws IOException {
+        this.writer = Files.newBufferedWriter(file.toPath(), Charset.defaultCharset());
+    }
+
+    @Override
+    public void writeHeader(final List<String> variableNames, final List<String> outputNames) throws IOException {
+        this.writer.write(Stream.concat(variableNames.stream(), outputNames.stream())
+                .collect(Collectors.joining(CsvResultsWriter.DELIMITER)));
+        this.writer.write(System.lineSeparator());
+    }
+
+    @Override
+    public void writeRow(final List<String> variableValues, final List<Object> outputValues) throws IOException {
+        for (final String value : variableValues) {
+            this.writer.write(value == null ? "" : value);
+            this.writer.write(CsvResultsWriter.DELIMITER);
+        }
+        for (final Object value : outputValues) {
+            this.writer.write(CsvResultsWriter.toString(value));
+            this.writer.write(CsvResultsWriter.DELIMITER);
+        }
+        this.writer.write(System.lineSeparator());
+    }
+
+    @Override
+    public void abort() {
+        // Rows are written as they come: nothing left to skip
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.writer.close();
+    }
+
+    /**
+     * @param value
+     *         an output value
+     * @return the text of the value, arrays being written as their elements between brackets
+     */
+    static String toString(final Object value) {
+        if (value instanceof final Object[] objects) {
+            return Arrays.toString(objects);
+        } else if (value instanceof final double[] doubles) {
+            return Arrays.toString(doubles);
+        } else {
+            return value == null ? "" : value.toString();
+        }
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.export;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Formats supported by the {@link ResultsExporter}.
+ *
+ * @author Arnaud Trouche - Artenum SARL
+ */
+public enum ExportFormat {
+
+    CSV("csv") {
+        @Override
+        public ResultsWriter createWriter(final File file) throws IOException {
+            return new CsvResultsWriter(file);
+        }
+    },
+
+    XLSX("xlsx", "xls") {
+        @Override
+        public ResultsWriter createWriter(final File file) {
+            return new XlsxResultsWriter(file);
+        }
+    },
+
+    NPZ("npz") {
+        @Override
+        public ResultsWriter createWriter(final File file) {
+            return new NpzResultsWriter(file);
+        }
+    };
+
+    private final String extension;
+
+    /**
+     * Other extensions accepted for this format.
+     */
+    private final List<String> aliases;
+
+    ExportFormat(final String theExtension, final String... theAliases) {
+        this.extension = theExtension;
+        this.aliases = List.of(theAliases);
+    }
+
+    /**
+     * @return the default file extension, without dot
+     */
+    public String getExtension() {
+        return this.extension;
+    }
+
+    /**
+     * @param file
+     *         the file to write
+     * @return a writer of the results in this format
+     * @throws IOException
+     *         if unable to open the file
+     */
+    public abstract ResultsWriter createWriter(File file) throws IOException;
+
+    /**
+     * @param extension
+     *         a file extension, without dot, in any case
+     * @return the format using this extension, if any
+     */
+    public static Optional<ExportFormat> fromExtension(final String extension) {
+        return Arrays.stream(ExportFormat.values())
+                .filter(f -> f.extension.equalsIgnoreCase(extension) || f.aliases.stream()
+                        .anyMatch(a -> a.equalsIgnoreCase(extension))).findFirst();
+    }
+
+}
@@ -0,0 +1,466 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.export;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.asnr.funz.data.model.CaseResults;
+
+/**
+ * Writes the results as a typed columnar NumPy archive ({@code .npz}): a ZIP file holding one {@code .npy} array per
+ * column, readable with {@code numpy.load}.
+ * <ul>
+ * <li>numeric columns are {@code float64} arrays, missing values being {@code NaN};</li>
+ * <li>array columns are stored as list columns: the {@code float64} concatenated values in {@code <name>.values} and
+ * the {@code int64} start offset of each case (plus the end) in {@code <name>.offsets};</li>
+ * <li>other columns are fixed-width unicode arrays, missing values being empty.</li>
+ * </ul>
+ * Missing values (see {@link CaseResults#isMissing(Object)}) of pending or failed cases do not change the type of a
+ * column.
+ * The type of a column is only known once all its values are read, so each column is spooled to a temporary file as
+ * the rows arrive, then copied into the archive when closing.
+ *
+ * @author Arnaud Trouche - Artenum SARL
+ */
+final class NpzResultsWriter implements ResultsWriter {
+
+    private static final byte[] NPY_MAGIC = { (byte) 0x93, 'N', 'U', 'M', 'P', 'Y', 1, 0 };
+
+    /**
+     * Alignment of the data of a {@code .npy} array, header included.
+     */
+    private static final int NPY_ALIGNMENT = 64;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final String VALUES_SUFFIX = ".values";
+
+    private static final String OFFSETS_SUFFIX = ".offsets";
+
+    /**
+     * Tags of the spooled values.
+     */
+    private static final byte NULL = 0;
+    private static final byte DOUBLE = 1;
+    private static final byte INTEGER = 2;
+    private static final byte NUMBER = 3;
+    private static final byte ARRAY = 4;
+    private static final byte TEXT = 5;
+
+    private final File file;
+
+    /**
+     * Columns, in the order of the header.
+     */
+    private final List<Column> columns;
+
+    /**
+     * Whether the export has been abandoned, the archive then not being written.
+     */
+    private boolean aborted;
+
+    /**
+     * Another number than a {@link Double} or an integer, spooled with its text.
+     *
+     * @param value
+     *         the value
+     * @param text
+     *         the text of the number
+     */
+    private record TextNumber(double value, String text) {
+    }
+
+    /**
+     * Column of the archive, whose values are spooled to a temporary file.
+     */
+    private static final class Column implements Closeable {
+
+        /**
+         * The unique name of the array in the archive.
+         */
+        private final String name;
+
+        /**
+         * Whether the column holds variable values, parsed as numbers when possible.
+         */
+        private final boolean variable;
+
+        private final Path spool;
+
+        private final DataOutputStream output;
+
+        private int count;
+
+        /**
+         * Whether all the values are numbers or missing.
+         */
+        private boolean numeric = true;
+
+        /**
+         * Whether all the values are arrays or missing.
+         */
+        private boolean arrays = true;
+
+        /**
+         * Total number of values of the arrays.
+         */
+        private long arraysLength;
+
+        Column(final String theName, final boolean isVariable) throws IOException {
+            this.name = theName;
+            this.variable = isVariable;
+            this.spool = Files.createTempFile("funz-npz-", ".column");
+            this.output = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(this.spool), NpzResultsWriter.BUFFER_SIZE));
+        }
+
+        void add(final Object rawValue) throws IOException {
+            final Object value;
+            if (CaseResults.isMissing(rawValue)) {
+                // Pending or failed case: does not change the type of the column
+                value = null;
+            } else {
+                value = this.variable ? NpzResultsWriter.parseVariable(rawValue) : rawValue;
+            }
+            this.count++;
+            if (value == null) {
+                this.output.writeByte(NpzResultsWriter.NULL);
+            } else if (value instanceof final Double number) {
+                this.arrays = false;
+                this.output.writeByte(NpzResultsWriter.DOUBLE);
+                this.output.writeDouble(number);
+            } else if (value instanceof Integer || value instanceof Long || value instanceof Short
+                    || value instanceof Byte) {
+                this.arrays = false;
+                this.output.writeByte(NpzResultsWriter.INTEGER);
+                this.output.writeLong(((Number) value).longValue());
+            } else if (value instanceof final Number number) {
+                this.arrays = false;
+                this.output.writeByte(NpzResultsWriter.NUMBER);
+                this.output.writeDouble(number.doubleValue());
+                NpzResultsWriter.writeText(this.output, number.toString());
+            } else if (value instanceof final double[] array) {
+                this.numeric = false;
+                this.arraysLength += array.length;
+                this.output.writeByte(NpzResultsWriter.ARRAY);
+                this.output.writeInt(array.length);
+                for (final double element : array) {
+                    this.output.writeDouble(element);
+                }
+            } else {
+                this.numeric = false;
+                this.arrays = false;
+                this.output.writeByte(NpzResultsWriter.TEXT);
+                NpzResultsWriter.writeText(this.output, CsvResultsWriter.toString(value));
+            }
+        }
+
+        /**
+         * @return a new stream reading the spooled values, once the column is complete
+         */
+        DataInputStream read() throws IOException {
+            this.output.flush();
+            return new DataInputStream(
+                    new BufferedInputStream(Files.newInputStream(this.spool), NpzResultsWriter.BUFFER_SIZE));
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                this.output.close();
+            } finally {
+                Files.deleteIfExists(this.spool);
+            }
+        }
+    }
+
+    /**
+     * @param theFile
+     *         the file to write
+     */
+    NpzResultsWriter(final File theFile) {
+        this.file = theFile;
+        this.columns = new ArrayList<>();
+    }
+
+    @Override
+    public void writeHeader(final List<String> variableNames, final List<String> outputNames) throws IOException {
+        final Set<String> names = new HashSet<>();
+        for (final String name : variableNames) {
+            this.columns.add(new Column(NpzResultsWriter.uniqueName(name, names), true));
+        }
+        for (final String name : outputNames) {
+            this.columns.add(new Column(NpzResultsWriter.uniqueName(name, names), false));
+        }
+    }
+
+    @Override
+    public void writeRow(final List<String> variableValues, final List<Object> outputValues) throws IOException {
+        for (int i = 0; i < this.columns.size(); i++) {
+            this.columns.get(i).add(
+                    i < variableValues.size() ? variableValues.get(i) : outputValues.get(i - variableValues.size()));
+        }
+    }
+
+    @Override
+    public void abort() {
+        this.aborted = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.aborted) {
+            for (final Column column : this.columns) {
+                column.close();
+            }
+            return;
+        }
+
+        try (final ZipOutputStream zip = new ZipOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(this.file.toPath()), NpzResultsWriter.BUFFER_SIZE))) {
+            for (final Column column : this.columns) {
+                NpzResultsWriter.writeColumn(zip, column);
+            }
+        } finally {
+            for (final Column column : this.columns) {
+                column.close();
+            }
+        }
+    }
+
+    /**
+     * @return the name of the array for the given column, made unique among the already used names, including the
+     *         names of the arrays of a list column
+     */
+    private static String uniqueName(final String columnName, final Set<String> usedNames) {
+        final String name = columnName.replace('/', '_');
+        String unique = name;
+        int suffix = 1;
+        while (usedNames.contains(unique) || usedNames.contains(unique + NpzResultsWriter.VALUES_SUFFIX)
+                || usedNames.contains(unique + NpzResultsWriter.OFFSETS_SUFFIX)) {
+            unique = name + "_" + suffix++;
+        }
+        usedNames.add(unique);
+        usedNames.add(unique + NpzResultsWriter.VALUES_SUFFIX);
+        usedNames.add(unique + NpzResultsWriter.OFFSETS_SUFFIX);
+        return unique;
+    }
+
+    private static void writeColumn(final ZipOutputStream zip, final Column column) throws IOException {
+        final ByteBuffer buffer = NpzResultsWriter.newBuffer();
+        if (column.numeric) {
+            NpzResultsWriter.startArray(zip, column.name, "<f8", column.count);
+            try (final DataInputStream in = column.read()) {
+                for (int i = 0; i < column.count; i++) {
+                    NpzResultsWriter.putDouble(zip, buffer, NpzResultsWriter.toDouble(NpzResultsWriter.readValue(in)));
+                }
+            }
+            NpzResultsWriter.flush(zip, buffer);
+            zip.closeEntry();
+        } else if (column.arrays) {
+            NpzResultsWriter.startArray(zip, column.name + NpzResultsWriter.VALUES_SUFFIX, "<f8",
+                    Math.toIntExact(column.arraysLength));
+            try (final DataInputStream in = column.read()) {
+                for (int i = 0; i < column.count; i++) {
+                    if (NpzResultsWriter.readValue(in) instanceof final double[] array) {
+                        for (final double value : array) {
+                            NpzResultsWriter.putDouble(zip, buffer, value);
+                        }
+                    }
+                }
+            }
+            NpzResultsWriter.flush(zip, buffer);
+            zip.closeEntry();
+
+            NpzResultsWriter.startArray(zip, column.name + NpzResultsWriter.OFFSETS_SUFFIX, "<i8", column.count + 1);
+            long offset = 0L;
+            NpzResultsWriter.putLong(zip, buffer, offset);
+            try (final DataInputStream in = column.read()) {
+                for (int i = 0; i < column.count; i++) {
+                    if (NpzResultsWriter.readValue(in) instanceof final double[] array) {
+                        offset += array.length;
+                    }
+                    NpzResultsWriter.putLong(zip, buffer, offset);
+                }
+            }
+            NpzResultsWriter.flush(zip, buffer);
+            zip.closeEntry();
+        } else {
+            NpzResultsWriter.writeStrings(zip, column, buffer);
+        }
+    }
+
+    /**
+     * Strings are written as fixed-width UTF-32 code points, padded with zeros: the width is found by a first read.
+     */
+    private static void writeStrings(final ZipOutputStream zip, final Column column, final ByteBuffer buffer)
+            throws IOException {
+        int width = 1;
+        try (final DataInputStream in = column.read()) {
+            for (int i = 0; i < column.count; i++) {
+                final String value = NpzResultsWriter.toText(NpzResultsWriter.readValue(in));
+                width = Math.max(width, value.codePointCount(0, value.length()));
+            }
+        }
+
+        NpzResultsWriter.startArray(zip, column.name, "<U" + width, column.count);
+        try (final DataInputStream in = column.read()) {
+            for (int i = 0; i < column.count; i++) {
+                final int[] codePoints = NpzResultsWriter.toText(NpzResultsWriter.readValue(in)).codePoints()
+                        .toArray();
+                for (int j = 0; j < width; j++) {
+                    if (buffer.remaining() < Integer.BYTES) {
+                        NpzResultsWriter.flush(zip, buffer);
+                    }
+                    buffer.putInt(j < codePoints.length ? codePoints[j] : 0);
+                }
+            }
+        }
+        NpzResultsWriter.flush(zip, buffer);
+        zip.closeEntry();
+    }
+
+    /**
+     * Variable values are texts: they are parsed as numbers when possible.
+     */
+    private static Object parseVariable(final Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(value.toString());
+        } catch (final NumberFormatException e) {
+            return value;
+        }
+    }
+
+    private static void writeText(final DataOutputStream output, final String text) throws IOException {
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readText(final DataInputStream input) throws IOException {
+        final byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the next spooled value: {@code null}, a {@link Double}, a {@link Long}, a {@link TextNumber}, a
+     *         {@code double[]} or a {@link String}
+     */
+    private static Object readValue(final DataInputStream input) throws IOException {
+        final byte tag = input.readByte();
+        return switch (tag) {
+        case NpzResultsWriter.NULL -> null;
+        case NpzResultsWriter.DOUBLE -> input.readDouble();
+        case NpzResultsWriter.INTEGER -> input.readLong();
+        case NpzResultsWriter.NUMBER -> new TextNumber(input.readDouble(), NpzResultsWriter.readText(input));
+        case NpzResultsWriter.ARRAY -> {
+            final double[] array = new double[input.readInt()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = input.readDouble();
+            }
+            yield array;
+        }
+        case NpzResultsWriter.TEXT -> NpzResultsWriter.readText(input);
+        default -> throw new IOException("Corrupted column spool, unknown tag " + tag);
+        };
+    }
+
+    private static double toDouble(final Object value) {
+        if (value instanceof final TextNumber number) {
+            return number.value();
+        }
+        return value == null ? Double.NaN : ((Number) value).doubleValue();
+    }
+
+    private static String toText(final Object value) {
+        if (value instanceof final TextNumber number) {
+            return number.text();
+        } else if (value instanceof final double[] array) {
+            return Arrays.toString(array);
+        }
+        return value == null ? "" : value.toString();
+    }
+
+    private static void putDouble(final OutputStream os, final ByteBuffer buffer, final double value)
+            throws IOException {
+        if (buffer.remaining() < Double.BYTES) {
+            NpzResultsWriter.flush(os, buffer);
+        }
+        buffer.putDouble(value);
+    }
+
+    private static void putLong(final OutputStream os, final ByteBuffer buffer, final long value)
+            throws IOException {
+        if (buffer.remaining() < Long.BYTES) {
+            NpzResultsWriter.flush(os, buffer);
+        }
+        buffer.putLong(value);
+    }
+
+    /**
+     * Starts the entry of a one-dimensional array and writes its {@code .npy} header.
+     */
+    private static void startArray(final ZipOutputStream zip, final String name, final String descr,
+            final int length) throws IOException {
+        zip.putNextEntry(new ZipEntry(name + ".npy"));
+
+        final StringBuilder header = new StringBuilder().append("{'descr': '").append(descr)
+                .append("', 'fortran_order': False, 'shape': (").append(length).append(",), }");
+        // Padded with spaces and ended by a new line so that the data is aligned
+        final int unpadded = NpzResultsWriter.NPY_MAGIC.length + Short.BYTES + header.length() + 1;
+        final int padding = (NpzResultsWriter.NPY_ALIGNMENT - (unpadded % NpzResultsWriter.NPY_ALIGNMENT))
+                % NpzResultsWriter.NPY_ALIGNMENT;
+        header.append(" ".repeat(padding)).append('\n');
+
+        final ByteBuffer prefix = ByteBuffer.allocate(NpzResultsWriter.NPY_MAGIC.length + Short.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        prefix.put(NpzResultsWriter.NPY_MAGIC).putShort((short) header.length());
+        zip.write(prefix.array());
+        zip.write(header.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static ByteBuffer newBuffer() {
+        return ByteBuffer.allocate(NpzResultsWriter.BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void flush(final OutputStream os, final ByteBuffer buffer) throws IOException {
+        os.write(buffer.array(), 0, buffer.position());
+        buffer.clear();
+    }
+
+}
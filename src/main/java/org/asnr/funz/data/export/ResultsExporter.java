@@ -0,0 +1,150 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.export;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleConsumer;
+
+import org.asnr.funz.data.model.CaseResults;
+import org.asnr.funz.data.model.ResultModel;
+
+/**
+ * Exports the results of a {@link ResultModel} to a file, streaming them case by case. Does not depend on the JavaFX
+ * application thread, so it should be run in a background thread.
+ *
+ * @author Arnaud Trouche - Artenum SARL
+ */
+public final class ResultsExporter {
+
+    /**
+     * Number of rows written between two progress notifications.
+     */
+    private static final int PROGRESS_STEP = 256;
+
+    private final List<CaseResults> results;
+
+    private final List<String> variableNames;
+
+    private final List<String> outputNames;
+
+    private final BiFunction<CaseResults, String, Object> resultResolver;
+
+    /**
+     * @param theResults
+     *         the cases to export, copied so that the model can change during the export
+     * @param theVariableNames
+     *         the names of the variables to export
+     * @param theOutputNames
+     *         the names of the outputs to export
+     * @param theResultResolver
+     *         gives the value of an output for a case
+     */
+    public ResultsExporter(final Collection<? extends CaseResults> theResults, final List<String> theVariableNames,
+            final List<String> theOutputNames, final BiFunction<CaseResults, String, Object> theResultResolver) {
+        this.results = new ArrayList<>(theResults);
+        this.variableNames = List.copyOf(theVariableNames);
+        this.outputNames = List.copyOf(theOutputNames);
+        this.resultResolver = theResultResolver;
+    }
+
+    /**
+     * Exports the results to the given file. The file is deleted if the export is cancelled or fails.
+     *
+     * @param file
+     *         the file to write
+     * @param format
+     *         the format of the file
+     * @param progress
+     *         notified with the fraction of the cases already written
+     * @param cancelled
+     *         checked before each case: when it returns {@code true}, the export stops
+     * @return {@code true} if all the cases have been written, {@code false} if cancelled
+     * @throws IOException
+     *         if unable to write the file
+     */
+    public boolean export(final File file, final ExportFormat format, final DoubleConsumer progress,
+            final BooleanSupplier cancelled) throws IOException {
+        boolean completed = false;
+        try (final ResultsWriter writer = format.createWriter(file)) {
+            try {
+                completed = this.write(writer, progress, cancelled);
+            } finally {
+                if (!completed) {
+                    // The file is deleted: not worth completing it
+                    writer.abort();
+                }
+            }
+        } finally {
+            if (!completed) {
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+        return completed;
+    }
+
+    /**
+     * Writes the results with the given writer.
+     *
+     * @param writer
+     *         the {@link ResultsWriter}
+     * @param progress
+     *         notified with the fraction of the cases already written
+     * @param cancelled
+     *         checked before each case: when it returns {@code true}, the export stops
+     * @return {@code true} if all the cases have been written, {@code false} if cancelled
+     * @throws IOException
+     *         if unable to write
+     */
+    public boolean write(final ResultsWriter writer, final DoubleConsumer progress, final BooleanSupplier cancelled)
+            throws IOException {
+        writer.writeHeader(this.variableNames, this.outputNames);
+
+        final List<String> variableValues = new ArrayList<>(this.variableNames.size());
+        final List<Object> outputValues = new ArrayList<>(this.outputNames.size());
+        final double total = Math.max(1, this.results.size());
+        int written = 0;
+        for (final CaseResults caseResult : this.results) {
+            if (cancelled.getAsBoolean()) {
+                return false;
+            }
+
+            variableValues.clear();
+            for (final String variableName : this.variableNames) {
+                variableValues.add(caseResult.getValueForVariable(variableName));
+            }
+            outputValues.clear();
+            for (final String outputName : this.outputNames) {
+                outputValues.add(this.resultResolver.apply(caseResult, outputName));
+            }
+            writer.writeRow(variableValues, outputValues);
+
+            written++;
+            if ((written % ResultsExporter.PROGRESS_STEP) == 0) {
+                progress.accept(written / total);
+            }
+        }
+
+        progress.accept(1d);
+        return true;
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes the exported results, row by row, in a given format.
+ *
+ * @author Arnaud Trouche - Artenum SARL
+ */
+public interface ResultsWriter extends Closeable {
+
+    /**
+     * Writes the names of the columns, called once before the rows.
+     *
+     * @param variableNames
+     *         the names of the variable columns
+     * @param outputNames
+     *         the names of the output columns
+     * @throws IOException
+     *         if unable to write
+     */
+    void writeHeader(List<String> variableNames, List<String> outputNames) throws IOException;
+
+    /**
+     * Writes the values of a case, in the order of the header.
+     *
+     * @param variableValues
+     *         the values of the variables, {@code null} if missing
+     * @param outputValues
+     *         the values of the outputs, {@code null} if missing
+     * @throws IOException
+     *         if unable to write
+     */
+    void writeRow(List<String> variableValues, List<Object> outputValues) throws IOException;
+
+    /**
+     * Abandons the export, before {@link #close()}: closing then only releases the resources, without completing the
+     * file.
+     */
+    void abort();
+
+}
@@ -0,0 +1,190 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.export;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+/**
+ * Writes the results as an XLSX workbook with a streaming {@link SXSSFWorkbook}: only the last rows are kept in
+ * memory. Numbers are written as numeric cells, and the rows are split across several sheets beyond the limit of a
+ * sheet.
+ *
+ * @author Arnaud Trouche - Artenum SARL
+ */
+final class XlsxResultsWriter implements ResultsWriter {
+
+    /**
+     * Number of rows kept in memory, the previous ones being flushed to a temporary file.
+     */
+    private static final int ROW_WINDOW = 100;
+
+    /**
+     * Name of the first sheet, the next ones being numbered.
+     */
+    private static final String SHEET_NAME = "Export";
+
+    private final File file;
+
+    private final SXSSFWorkbook workbook;
+
+    /**
+     * Maximal number of rows of a sheet, header included.
+     */
+    private final int maxRows;
+
+    private final List<String> header;
+
+    private Sheet sheet;
+
+    private int rowIndex;
+
+    /**
+     * Whether the export has been abandoned, the workbook then not being written.
+     */
+    private boolean aborted;
+
+    /**
+     * @param theFile
+     *         the file to write
+     */
+    XlsxResultsWriter(final File theFile) {
+        this(theFile, SpreadsheetVersion.EXCEL2007.getMaxRows());
+    }
+
+    /**
+     * @param theFile
+     *         the file to write
+     * @param theMaxRows
+     *         the maximal number of rows of a sheet, header included
+     */
+    XlsxResultsWriter(final File theFile, final int theMaxRows) {
+        this.file = theFile;
+        this.maxRows = Math.max(2, theMaxRows);
+        this.header = new ArrayList<>();
+        this.workbook = new SXSSFWorkbook(XlsxResultsWriter.ROW_WINDOW);
+        this.workbook.setCompressTempFiles(true);
+    }
+
+    @Override
+    public void writeHeader(final List<String> variableNames, final List<String> outputNames) {
+        this.header.addAll(variableNames);
+        this.header.addAll(outputNames);
+        this.createSheet();
+    }
+
+    @Override
+    public void writeRow(final List<String> variableValues, final List<Object> outputValues) {
+        if (this.rowIndex >= this.maxRows) {
+            this.createSheet();
+        }
+
+        final Row row = this.sheet.createRow(this.rowIndex++);
+        int cellIndex = 0;
+        for (final String value : variableValues) {
+            XlsxResultsWriter.setVariableValue(row, cellIndex++, value);
+        }
+        for (final Object value : outputValues) {
+            XlsxResultsWriter.setOutputValue(row, cellIndex++, value);
+        }
+    }
+
+    @Override
+    public void abort() {
+        this.aborted = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.aborted) {
+            // Only removes the temporary sheet files
+            this.workbook.dispose();
+            this.workbook.close();
+            return;
+        }
+
+        boolean written = false;
+        try {
+            try (final OutputStream os = Files.newOutputStream(this.file.toPath())) {
+                this.workbook.write(os);
+            }
+            written = true;
+        } finally {
+            // Removes the temporary sheet files
+            this.workbook.dispose();
+            this.workbook.close();
+            if (!written) {
+                Files.deleteIfExists(this.file.toPath());
+            }
+        }
+    }
+
+    /**
+     * Creates a new sheet, starting with the header.
+     */
+    private void createSheet() {
+        final int sheetNumber = this.workbook.getNumberOfSheets() + 1;
+        this.sheet = this.workbook.createSheet(
+                sheetNumber == 1 ? XlsxResultsWriter.SHEET_NAME : XlsxResultsWriter.SHEET_NAME + " " + sheetNumber);
+        this.rowIndex = 0;
+
+        final Row headerRow = this.sheet.createRow(this.rowIndex++);
+        for (int i = 0; i < this.header.size(); i++) {
+            headerRow.createCell(i).setCellValue(this.header.get(i));
+        }
+    }
+
+    /**
+     * Variable values are texts: they are written as numbers when possible.
+     */
+    private static void setVariableValue(final Row row, final int cellIndex, final String value) {
+        if (value == null) {
+            return;
+        }
+
+        final Cell cell = row.createCell(cellIndex);
+        try {
+            cell.setCellValue(Double.parseDouble(value));
+        } catch (final NumberFormatException e) {
+            cell.setCellValue(value);
+        }
+    }
+
+    private static void setOutputValue(final Row row, final int cellIndex, final Object value) {
+        if (value == null) {
+            return;
+        }
+
+        final Cell cell = row.createCell(cellIndex);
+        if (value instanceof final Number n) {
+            cell.setCellValue(n.doubleValue());
+        } else if (value instanceof final Boolean b) {
+            cell.setCellValue(b.booleanValue());
+        } else {
+            cell.setCellValue(CsvResultsWriter.toString(value));
+        }
+    }
+
+}
@@ -34,6 +34,7 @@ public enum ResultsDictionary implements GuiDictionary {
     ALWAYS_UPDATE("Live Update"),
     ANALYSIS("Analysis"),
     BINARY_FILE("Selected file is binary"),
+    CANCEL("Cancel"),
     @FXML
     COLLAPSE_16("icons/16/collapse.png"),
     @FXML
@@ -42,6 +43,12 @@ public enum ResultsDictionary implements GuiDictionary {
     COLUMN_SELECTOR("Column selector"),
     @FXML
     COMPARE_FILES("Compare files"),
+    @FXML
+    CONTENT_SEARCH("Search in files"),
+    CONTENT_SEARCH_HITS("%s line(s) found"),
+    @FXML
+    CONTENT_SEARCH_PROMPT("Text to search, then Enter"),
+    CONTENT_SEARCH_RUNNING("Searching..."),
     COPY("Copy"),
     @FXML
     DATA("Data"),
@@ -67,6 +74,7 @@ public enum ResultsDictionary implements GuiDictionary {
     INPUT_VARIABLES_STATUS_INDEPENDENT_CASES(" independant case(s)"),
     INPUT_VARIABLES_STATUS_INVALID_VARIABLES("Invalid variable(s):"),
     LEFT_16("icons/16/left.png"),
+    LOADING_CASES("Loading cases..."),
     MODEL_STATUS_OK("OK."),
     NAME("Name"),
     NO_EXTENSION_IN_NAME(
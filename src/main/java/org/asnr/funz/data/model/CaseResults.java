@@ -23,6 +23,21 @@ import org.funz.parameter.Variable;
  */
 public sealed interface CaseResults permits DiscreteCaseResults, DoeCaseResults {
 
+    /**
+     * Result shown for an output not available for a case, for instance not computed yet or failed.
+     */
+    String MISSING_RESULT = "?";
+
+    /**
+     * @param result
+     *         a result, or a variable value
+     * @return {@code true} if it is missing: {@code null}, {@link #MISSING_RESULT} or a blank status
+     */
+    static boolean isMissing(final Object result) {
+        return result == null || CaseResults.MISSING_RESULT.equals(result)
+                || (result instanceof final String text && text.isBlank());
+    }
+
     /**
      * @param variableName
      *         the name of the {@link Variable}
@@ -91,4 +91,13 @@ public non-sealed interface DiscreteCaseResults extends ObservableValue<Discrete
      */
     List<Number> getSparkAbscissa(final String outputFunction);
 
+    /**
+     * @param outputFunction
+     *         the output function for which we want the information
+     * @return the key used to sort the cases on the given output function
+     */
+    default SortKey getSortKey(final String outputFunction) {
+        return SortKey.of(this.getResult(outputFunction));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.model;
+
+import java.util.Set;
+
+/**
+ * Set of changes applied to a {@link ResultModel} since its previous notification.
+ *
+ * @param reset
+ *         whether the whole model changed (variables, grouping...), in which case the indices are not relevant
+ * @param added
+ *         the indices of the added cases
+ * @param updated
+ *         the indices of the updated cases
+ * @param removed
+ *         the indices of the removed cases
+ * @author Arnaud Trouche - Artenum SARL
+ */
+public record ResultChange(boolean reset, Set<Integer> added, Set<Integer> updated, Set<Integer> removed) {
+
+    /**
+     * @param reset
+     *         whether the whole model changed
+     * @param added
+     *         the indices of the added cases
+     * @param updated
+     *         the indices of the updated cases
+     * @param removed
+     *         the indices of the removed cases
+     */
+    public ResultChange {
+        added = Set.copyOf(added);
+        updated = Set.copyOf(updated);
+        removed = Set.copyOf(removed);
+    }
+
+    /**
+     * @return whether this change does not modify the model
+     */
+    public boolean isEmpty() {
+        return !this.reset && this.added.isEmpty() && this.updated.isEmpty() && this.removed.isEmpty();
+    }
+
+}
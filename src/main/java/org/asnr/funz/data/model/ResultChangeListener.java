@@ -0,0 +1,35 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.model;
+
+/**
+ * Listener interface to be notified of the batched changes of a {@link ResultModel}.
+ *
+ * @author Arnaud Trouche - Artenum SARL
+ */
+@FunctionalInterface
+public interface ResultChangeListener {
+
+    /**
+     * The given model changed. Called outside of the JavaFX application thread.
+     *
+     * @param model
+     *         the modified {@link ResultModel}
+     * @param change
+     *         the changes applied since the previous notification
+     */
+    void resultsChanged(ResultModel model, ResultChange change);
+
+}
@@ -16,6 +16,7 @@ package org.asnr.funz.data.model;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import org.funz.doeplugin.Design;
 
@@ -43,6 +44,13 @@ public interface ResultModel extends ObservableValue<Collection<DiscreteCaseResu
      */
     Collection<DiscreteCaseResults> getDiscreteResults();
 
+    /**
+     * @param index
+     *         the index of the case, as notified in a {@link ResultChange}
+     * @return the case at the given index, if any
+     */
+    Optional<DiscreteCaseResults> getDiscreteResult(int index);
+
     /**
      * @return the DOE cases
      */
@@ -65,4 +73,20 @@ public interface ResultModel extends ObservableValue<Collection<DiscreteCaseResu
      */
     List<String> getDoeOutputs();
 
+    /**
+     * Adds a
+     *
+     * @param listener
+     *         {@link ResultChangeListener}
+     */
+    void addResultChangeListener(ResultChangeListener listener);
+
+    /**
+     * Removes a
+     *
+     * @param listener
+     *         {@link ResultChangeListener}
+     */
+    void removeResultChangeListener(ResultChangeListener listener);
+
 }
\ No newline at end of file
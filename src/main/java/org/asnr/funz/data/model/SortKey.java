@@ -0,0 +1,112 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.model;
+
+/**
+ * Pre-computed key used to sort a table column: missing values first, then numbers, then texts.
+ *
+ * @author Arnaud Trouche - Artenum SARL
+ */
+public final class SortKey implements Comparable<SortKey> {
+
+    /**
+     * Key of a missing value.
+     */
+    public static final SortKey NULL = new SortKey(0, 0d, "");
+
+    private static final int NUMBER_RANK = 1;
+
+    private static final int TEXT_RANK = 2;
+
+    private final int rank;
+
+    private final double number;
+
+    private final String text;
+
+    private SortKey(final int theRank, final double theNumber, final String theText) {
+        this.rank = theRank;
+        this.number = theNumber;
+        this.text = theText;
+    }
+
+    /**
+     * @param value
+     *         a result value
+     * @return the key of the value: numbers and non-empty arrays of doubles (by their first value) are sorted as
+     *         numbers, other values by their string representation
+     */
+    public static SortKey of(final Object value) {
+        if (value == null) {
+            return SortKey.NULL;
+        }
+        if (value instanceof final Number n) {
+            return new SortKey(SortKey.NUMBER_RANK, n.doubleValue(), "");
+        }
+        if ((value instanceof final double[] array) && (array.length > 0)) {
+            return new SortKey(SortKey.NUMBER_RANK, array[0], "");
+        }
+        return new SortKey(SortKey.TEXT_RANK, 0d, value.toString());
+    }
+
+    /**
+     * @param value
+     *         a text value
+     * @return the key of the value: texts that can be parsed as double are sorted as numbers
+     */
+    public static SortKey parse(final String value) {
+        if (value == null) {
+            return SortKey.NULL;
+        }
+        try {
+            return new SortKey(SortKey.NUMBER_RANK, Double.parseDouble(value), "");
+        } catch (final NumberFormatException e) {
+            return new SortKey(SortKey.TEXT_RANK, 0d, value);
+        }
+    }
+
+    @Override
+    public int compareTo(final SortKey other) {
+        if (this.rank != other.rank) {
+            return Integer.compare(this.rank, other.rank);
+        }
+        if (this.rank == SortKey.NUMBER_RANK) {
+            return Double.compare(this.number, other.number);
+        }
+        return this.text.compareTo(other.text);
+    }
+
+    @Override
+    public int hashCode() {
+        return (31 * ((31 * this.rank) + Double.hashCode(this.number))) + this.text.hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof final SortKey other)) {
+            return false;
+        }
+        return this.compareTo(other) == 0;
+    }
+
+    @Override
+    public String toString() {
+        return this.rank == SortKey.NUMBER_RANK ? String.valueOf(this.number) : this.text;
+    }
+
+}
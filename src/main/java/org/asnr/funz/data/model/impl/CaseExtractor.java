@@ -20,12 +20,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.asnr.funz.data.i18n.ResultsDictionary;
+import org.asnr.funz.data.model.CaseResults;
 import org.asnr.funz.data.model.DiscreteCaseResults;
+import org.asnr.funz.data.model.SortKey;
 import org.funz.Project;
 import org.funz.parameter.Case;
 import org.funz.util.Data;
@@ -53,6 +56,17 @@ class CaseExtractor extends ObservableValueBase<DiscreteCaseResults> implements
 
     private final Case inputCase;
 
+    /**
+     * Ordinals of the variables, shared with the other cases of the model.
+     */
+    private final ParameterKeys parameterKeys;
+
+    /**
+     * Parameter values of the case by variable ordinal, snapshot at each update, or {@code null} if the case has no
+     * parameters.
+     */
+    private volatile String[] parameterValues;
+
     private String status;
     private final Map<String, Object> output;
 
@@ -69,18 +83,27 @@ class CaseExtractor extends ObservableValueBase<DiscreteCaseResults> implements
      */
     private final Map<String, DiscreteCaseOutputResult> outputFunctionResults;
 
+    /**
+     * Sort keys of the results by output function, computed once per update.
+     */
+    private final Map<String, SortKey> sortKeys;
+
     /**
      * @param theProject
      *         the parent project for extraction of output
      * @param givenCase
      *         the case to analyse
+     * @param keys
+     *         the ordinals of the variables, shared with the other cases of the model
      */
-    public CaseExtractor(final Project theProject, final Case givenCase) {
+    public CaseExtractor(final Project theProject, final Case givenCase, final ParameterKeys keys) {
         this.project = theProject;
         this.inputCase = givenCase;
+        this.parameterKeys = keys;
         this.status = "";
         this.output = new HashMap<>();
         this.outputFunctionResults = new HashMap<>();
+        this.sortKeys = new ConcurrentHashMap<>();
         this.update();
     }
 
@@ -90,6 +113,8 @@ class CaseExtractor extends ObservableValueBase<DiscreteCaseResults> implements
     public synchronized void update() {
         this.isParsing = true;
 
+        this.snapshotParameters();
+
         final boolean isUpdated = this.extractResults();
 
         if (isUpdated) {
@@ -104,10 +129,37 @@ class CaseExtractor extends ObservableValueBase<DiscreteCaseResults> implements
             }
             this.outputFunctionResults.values().forEach(DiscreteCaseOutputResult::update);
         }
+        // Cleared once the results are extracted, so that no key computed meanwhile is kept
+        this.sortKeys.clear();
         this.isParsing = false;
         this.fireValueChangedEvent();
     }
 
+    /**
+     * Stores the current parameter values of the case, so that they are not recomputed for each cell.
+     */
+    private void snapshotParameters() {
+        final Map<String, String> caseParameters = this.project.getCaseParameters(this.inputCase);
+        if (caseParameters == null) {
+            this.parameterValues = null;
+            return;
+        }
+
+        final List<Entry<String, String>> entries = List.copyOf(caseParameters.entrySet());
+        final int[] ordinals = new int[entries.size()];
+        int length = 0;
+        for (int i = 0; i < ordinals.length; i++) {
+            ordinals[i] = this.parameterKeys.register(entries.get(i).getKey());
+            length = Math.max(length, ordinals[i] + 1);
+        }
+
+        final String[] values = new String[length];
+        for (int i = 0; i < ordinals.length; i++) {
+            values[ordinals[i]] = entries.get(i).getValue();
+        }
+        this.parameterValues = values;
+    }
+
     private void ftp() {
         if (!this.status.isEmpty() && this.status.contains(CaseExtractor.FTP_PREFIX)) {
             this.ftp = CaseExtractor.FTP_PREFIX + this.status.split(CaseExtractor.FTP_PREFIX)[1].split(" ")[0].trim();
@@ -185,12 +237,15 @@ class CaseExtractor extends ObservableValueBase<DiscreteCaseResults> implements
 
     @Override
     public String getValueForVariable(final String variableName) {
-        final Map<String, String> caseParameters = this.project.getCaseParameters(this.inputCase);
-        if (Project.SINGLE_PARAM_NAME.equals(variableName) && ((caseParameters == null) || (
-                caseParameters.get(variableName) == null))) {
+        final String[] values = this.parameterValues;
+        final int ordinal = this.parameterKeys.ordinalOf(variableName);
+        final String value = ((values == null) || (ordinal < 0) || (ordinal >= values.length)) ?
+                null :
+                values[ordinal];
+        if (Project.SINGLE_PARAM_NAME.equals(variableName) && (value == null)) {
             return "";
         }
-        return caseParameters.get(variableName);
+        return value;
     }
 
     @Override
@@ -202,6 +257,14 @@ class CaseExtractor extends ObservableValueBase<DiscreteCaseResults> implements
         return this.getRawResult(customMainFunction);
     }
 
+    @Override
+    public SortKey getSortKey(final String outputFunction) {
+        if (this.isParsing) {
+            return SortKey.of(ResultsDictionary.PARSING_RESULTS.getString());
+        }
+        return this.sortKeys.computeIfAbsent(outputFunction, f -> SortKey.of(this.getRawResult(f)));
+    }
+
     @Override
     public String getStringResult(final String selectedOutputFunction) {
         return Data.asString(this.getResult(selectedOutputFunction));
@@ -290,7 +353,7 @@ class CaseExtractor extends ObservableValueBase<DiscreteCaseResults> implements
 
         final String mainOutput = this.getCleanedFunction(mainFunction);
         final Object result = this.output.get(mainOutput);
-        return result == null ? "?" : result;
+        return result == null ? CaseResults.MISSING_RESULT : result;
     }
 
     private String getCleanedFunction(final String mainFunction) {
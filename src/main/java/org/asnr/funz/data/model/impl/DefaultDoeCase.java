@@ -20,6 +20,7 @@ import java.util.Map.Entry;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.asnr.funz.data.model.CaseResults;
 import org.asnr.funz.data.model.DoeCaseResults;
 import org.funz.doeplugin.DesignSession;
 
@@ -51,7 +52,7 @@ public class DefaultDoeCase implements DoeCaseResults {
         if (value != null) {
             return String.valueOf(value);
         }
-        return "?";
+        return CaseResults.MISSING_RESULT;
     }
 
     @Override
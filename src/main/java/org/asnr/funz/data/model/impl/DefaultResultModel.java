@@ -16,19 +16,29 @@ package org.asnr.funz.data.model.impl;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BinaryOperator;
 import java.util.stream.Collectors;
 
 import org.asnr.funz.data.model.DiscreteCaseResults;
 import org.asnr.funz.data.model.DoeCaseResults;
+import org.asnr.funz.data.model.ResultChange;
+import org.asnr.funz.data.model.ResultChangeListener;
 import org.asnr.funz.data.model.ResultModel;
 import org.asnr.funz.model.ExtendedProject;
 import org.asnr.funz.model.ExtendedProjectUtils;
@@ -48,6 +58,11 @@ import javafx.beans.value.ObservableValueBase;
  */
 public class DefaultResultModel extends ObservableValueBase<Collection<DiscreteCaseResults>> implements ResultModel {
 
+    /**
+     * Default minimal delay between two change notifications, in milliseconds.
+     */
+    private static final long DEFAULT_NOTIFICATION_INTERVAL = 100L;
+
     /**
      * Current project.
      */
@@ -64,9 +79,10 @@ public class DefaultResultModel extends ObservableValueBase<Collection<DiscreteC
     private final Set<String> discreteVariables;
 
     /**
-     * All the cases for the current project, stored by index.
+     * All the cases for the current project, stored by index. Never modified once published: each change publishes a
+     * new map, so that the background readers iterate a consistent snapshot.
      */
-    private Map<Integer, DiscreteCaseResults> cases;
+    private volatile Map<Integer, DiscreteCaseResults> cases;
 
     /**
      * All the original cases for the current project, stored by index.
@@ -90,6 +106,42 @@ public class DefaultResultModel extends ObservableValueBase<Collection<DiscreteC
 
     private final List<String> doeOutputs;
 
+    /**
+     * Ordinals of the variables, shared by all the cases.
+     */
+    private final ParameterKeys parameterKeys;
+
+    /**
+     * Single thread refreshing the model and notifying its changes, so that case events do not contend on the model
+     * lock.
+     */
+    private final ScheduledExecutorService refreshExecutor;
+
+    /**
+     * Indices of the cases whose refresh is queued but not started yet.
+     */
+    private final Set<Integer> pendingRefreshes;
+
+    /**
+     * Changes not notified yet.
+     */
+    private final PendingResultChange pendingChange;
+
+    /**
+     * Whether a notification of the pending changes is scheduled.
+     */
+    private final AtomicBoolean notificationScheduled;
+
+    /**
+     * Listeners on the batched changes.
+     */
+    private final List<ResultChangeListener> resultChangeListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Minimal delay between two change notifications, in milliseconds.
+     */
+    private long notificationInterval = DefaultResultModel.DEFAULT_NOTIFICATION_INTERVAL;
+
     /**
      * Create the result renderer model for the given project.
      *
@@ -98,10 +150,19 @@ public class DefaultResultModel extends ObservableValueBase<Collection<DiscreteC
     public DefaultResultModel(final ExtendedProject project) {
         this.variables = new HashSet<>();
         this.discreteVariables = new HashSet<>();
-        this.cases = new HashMap<>();
+        this.cases = Collections.emptyMap();
         this.originalCases = new HashMap<>();
         this.doeCases = new ArrayList<>();
         this.doeOutputs = new ArrayList<>();
+        this.parameterKeys = new ParameterKeys();
+        this.pendingRefreshes = ConcurrentHashMap.newKeySet();
+        this.pendingChange = new PendingResultChange();
+        this.notificationScheduled = new AtomicBoolean();
+        this.refreshExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "FunzDataView-results-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
 
         this.project = project;
 
@@ -121,20 +182,39 @@ public class DefaultResultModel extends ObservableValueBase<Collection<DiscreteC
 
         this.project.addCaseModifiedListener((index, what) -> {
             switch (what) {
-            case Case.MODIFIED_CALC, Case.MODIFIED_STATE ->
-                    Executors.defaultThreadFactory().newThread(() -> this.refreshCase(index)).start();
-            case Case.MODIFIED_INFO, Case.MODIFIED_TIME -> this.fireValueChangedEvent();
+            case Case.MODIFIED_CALC, Case.MODIFIED_STATE -> this.scheduleRefresh(index);
+            case Case.MODIFIED_INFO, Case.MODIFIED_TIME -> {
+                this.pendingChange.updated(index);
+                this.scheduleNotification();
+            }
             }
         });
 
         // When design updated, we refresh the corresponding line (using the design index)
-        this.project.addDesignUpdatedListener(
-                index -> Executors.defaultThreadFactory().newThread(() -> this.refreshCase(index)).start());
+        this.project.addDesignUpdatedListener(this::scheduleRefresh);
+    }
+
+    /**
+     * Queues the refresh of the given case. Several events for the same case before its refresh starts only lead to a
+     * single refresh.
+     *
+     * @param index
+     *         the index of the case to refresh
+     */
+    private void scheduleRefresh(final int index) {
+        if (!this.refreshExecutor.isShutdown() && this.pendingRefreshes.add(index)) {
+            this.refreshExecutor.execute(() -> {
+                // Removed before refreshing so that a later event triggers a new refresh
+                this.pendingRefreshes.remove(index);
+                this.refreshCase(index);
+            });
+        }
     }
 
     @Override
     public Collection<DiscreteCaseResults> getValue() {
-        return this.cases.values();
+        // A new view for each call, so that change listeners see a new value without copying the snapshot
+        return Collections.unmodifiableCollection(this.cases.values());
     }
 
     /**
@@ -158,6 +238,11 @@ public class DefaultResultModel extends ObservableValueBase<Collection<DiscreteC
         return this.cases.values();
     }
 
+    @Override
+    public Optional<DiscreteCaseResults> getDiscreteResult(final int index) {
+        return Optional.ofNullable(this.cases.get(index));
+    }
+
     @Override
     public Collection<DoeCaseResults> getDoeResults() {
         return this.doeCases;
@@ -182,10 +267,87 @@ public class DefaultResultModel extends ObservableValueBase<Collection<DiscreteC
     }
 
     @Override
-    protected void fireValueChangedEvent() {
-        // Recreate a map to force fire value changed event
-        this.cases = new HashMap<>(this.cases);
-        super.fireValueChangedEvent();
+    public void addResultChangeListener(final ResultChangeListener listener) {
+        this.resultChangeListeners.add(listener);
+    }
+
+    @Override
+    public void removeResultChangeListener(final ResultChangeListener listener) {
+        this.resultChangeListeners.remove(listener);
+    }
+
+    /**
+     * @return the minimal delay between two change notifications, in milliseconds
+     */
+    public long getNotificationInterval() {
+        return this.notificationInterval;
+    }
+
+    /**
+     * @param interval
+     *         the minimal delay between two change notifications, in milliseconds
+     */
+    public void setNotificationInterval(final long interval) {
+        this.notificationInterval = Math.max(0L, interval);
+    }
+
+    /**
+     * Waits until the model filling and the case refreshes queued so far are done, for callers reading the results
+     * outside of any change notification (headless export).
+     *
+     * @throws InterruptedException
+     *         if interrupted while waiting
+     */
+    public void awaitRefreshes() throws InterruptedException {
+        try {
+            // The executor is single-threaded: this task only runs once all the previous ones are done
+            this.refreshExecutor.submit(() -> {
+                // Nothing to do
+            }).get();
+        } catch (final ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Stops the refresh thread, once the project is closed: the later case events are ignored.
+     */
+    public void dispose() {
+        this.refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Schedules the notification of the pending changes, unless it is already scheduled.
+     */
+    private void scheduleNotification() {
+        if (!this.refreshExecutor.isShutdown() && this.notificationScheduled.compareAndSet(false, true)) {
+            this.refreshExecutor.schedule(this::notifyChanges, this.notificationInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Notifies all the changes accumulated since the previous notification.
+     */
+    private void notifyChanges() {
+        // Cleared before draining so that a change recorded meanwhile schedules a new notification
+        this.notificationScheduled.set(false);
+        final ResultChange change = this.pendingChange.drain();
+        if (change.isEmpty()) {
+            return;
+        }
+
+        for (final ResultChangeListener listener : this.resultChangeListeners) {
+            listener.resultsChanged(this, change);
+        }
+        this.fireValueChangedEvent();
+    }
+
+    /**
+     * Records that the whole model changed.
+     */
+    private void modelReset() {
+        this.pendingChange.reset();
+        this.scheduleNotification();
     }
 
     /**
@@ -194,18 +356,21 @@ public class DefaultResultModel extends ObservableValueBase<Collection<DiscreteC
     private void clearModel() {
         this.variables.clear();
         this.discreteVariables.clear();
-        this.cases.clear();
+        this.cases = Collections.emptyMap();
         this.doeCases.clear();
         this.doeOutputs.clear();
         this.haveDesign = false;
-        this.fireValueChangedEvent();
+        this.modelReset();
     }
 
     /**
      * Fill the model with cases and variables.
      */
     private void fillModel() {
-        Executors.defaultThreadFactory().newThread(() -> {
+        if (this.refreshExecutor.isShutdown()) {
+            return;
+        }
+        this.refreshExecutor.execute(() -> {
             this.resultName = ExtendedProjectUtils.getResultName(this.project);
 
             // Create variables
@@ -230,8 +395,8 @@ public class DefaultResultModel extends ObservableValueBase<Collection<DiscreteC
 
                 }
             }
-            this.fireValueChangedEvent();
-        }).start();
+            this.modelReset();
+        });
     }
 
     /**
@@ -270,6 +435,52 @@ public class DefaultResultModel extends ObservableValueBase<Collection<DiscreteC
         }
     }
 
+    /**
+     * Publishes a batch of cases being loaded, before they are set in the project.
+     *
+     * @param firstIndex
+     *         the index of the first case of the batch in the project cases
+     * @param loadedCases
+     *         the loaded cases
+     */
+    public synchronized void publishCases(final int firstIndex, final List<Case> loadedCases) {
+        if (this.variables.isEmpty()) {
+            this.fillVariables();
+        }
+
+        // Fill a copy so that the cases already published can be read while loading
+        final Map<Integer, DiscreteCaseResults> newCases = new HashMap<>(this.cases);
+        for (int i = 0; i < loadedCases.size(); i++) {
+            final CaseExtractor extractor = new CaseExtractor(this.project, loadedCases.get(i), this.parameterKeys);
+            this.originalCases.put(firstIndex + i, extractor);
+            newCases.put(firstIndex + i, extractor);
+            this.pendingChange.added(firstIndex + i);
+        }
+        this.publish(newCases);
+
+        this.scheduleNotification();
+    }
+
+    /**
+     * Removes all the cases published with {@link #publishCases(int, List)}.
+     */
+    public synchronized void resetCases() {
+        this.originalCases.keySet().forEach(this.pendingChange::removed);
+        this.originalCases.clear();
+        this.cases = Collections.emptyMap();
+        this.scheduleNotification();
+    }
+
+    /**
+     * Publishes a new snapshot of the cases.
+     *
+     * @param newCases
+     *         the cases, no longer modified by the caller
+     */
+    private void publish(final Map<Integer, DiscreteCaseResults> newCases) {
+        this.cases = Collections.unmodifiableMap(newCases);
+    }
+
     private synchronized void refreshCase(final int index) {
         if (this.variables.isEmpty()) {
             this.fillVariables();
@@ -282,17 +493,23 @@ public class DefaultResultModel extends ObservableValueBase<Collection<DiscreteC
             }
 
             ((CaseExtractor) this.cases.get(index)).update();
+            this.pendingChange.updated(index);
+            this.scheduleNotification();
         }
     }
 
     private void createExtractors() {
         final CaseList projectCases = this.project.getCases();
         for (int index = 0; index < projectCases.size(); index++) {
-            this.originalCases.computeIfAbsent(index, i -> new CaseExtractor(this.project, projectCases.get(i)));
+            if (!this.originalCases.containsKey(index)) {
+                this.originalCases.put(index,
+                        new CaseExtractor(this.project, projectCases.get(index), this.parameterKeys));
+                this.pendingChange.added(index);
+            }
         }
-        this.cases = new HashMap<>(this.originalCases);
+        this.publish(new HashMap<>(this.originalCases));
 
-        this.fireValueChangedEvent();
+        this.scheduleNotification();
     }
 
     @Override
@@ -338,14 +555,14 @@ public class DefaultResultModel extends ObservableValueBase<Collection<DiscreteC
         return this.variables.equals(other.variables);
     }
 
-    public void groupVariable(final String selectedParameter) {
+    public synchronized void groupVariable(final String selectedParameter) {
         if (selectedParameter.equals("None")) {
-            this.cases = new HashMap<>(this.originalCases);
+            this.publish(new HashMap<>(this.originalCases));
         } else {
             final Collection<String> variablesToGroup = new ArrayList<>(this.getDiscreteVariables());
             variablesToGroup.remove(selectedParameter);
 
-            this.cases.clear();
+            final Map<Integer, DiscreteCaseResults> groupedCases = new HashMap<>();
             final List<List<DiscreteCaseResults>> caseResultsGroups = DefaultResultModel.groupByVariableValues(
                     this.originalCases.values(), variablesToGroup);
             final BinaryOperator<String> variableMerger = (v1, v2) -> (v1 != null && v1.equals(v2)) ?
@@ -371,10 +588,11 @@ public class DefaultResultModel extends ObservableValueBase<Collection<DiscreteC
                         .toList();
                 final MergeCaseExtractor mergeCaseExtractor = new MergeCaseExtractor(caseExtractorsList,
                         this.getDiscreteVariables(), variableMerger, valuesMerger);
-                this.cases.put(key.getAndIncrement(), mergeCaseExtractor);
+                groupedCases.put(key.getAndIncrement(), mergeCaseExtractor);
             });
+            this.publish(groupedCases);
         }
-        super.fireValueChangedEvent();
+        this.modelReset();
     }
 
     private static List<List<DiscreteCaseResults>> groupByVariableValues(
@@ -0,0 +1,56 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.model.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ordinals of the variable names, shared by all the {@link CaseExtractor}s of a model so that each case only stores
+ * its parameter values in an array.
+ *
+ * @author Arnaud Trouche - Artenum SARL
+ */
+final class ParameterKeys {
+
+    /**
+     * Ordinal by variable name, read without locking.
+     */
+    private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+
+    /**
+     * @param variableName
+     *         the name of the variable
+     * @return the ordinal of the variable, assigned on the first call for this name
+     */
+    synchronized int register(final String variableName) {
+        Integer ordinal = this.ordinals.get(variableName);
+        if (ordinal == null) {
+            ordinal = this.ordinals.size();
+            this.ordinals.put(variableName, ordinal);
+        }
+        return ordinal;
+    }
+
+    /**
+     * @param variableName
+     *         the name of the variable
+     * @return the ordinal of the variable, or {@code -1} if it has never been registered
+     */
+    int ordinalOf(final String variableName) {
+        return this.ordinals.getOrDefault(variableName, -1);
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.model.impl;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.asnr.funz.data.model.ResultChange;
+
+/**
+ * Accumulates the changes of a {@link DefaultResultModel} until they are notified.
+ *
+ * @author Arnaud Trouche - Artenum SARL
+ */
+final class PendingResultChange {
+
+    private final Set<Integer> added = new HashSet<>();
+
+    private final Set<Integer> updated = new HashSet<>();
+
+    private final Set<Integer> removed = new HashSet<>();
+
+    private boolean reset = false;
+
+    /**
+     * @param index
+     *         the index of the added case
+     */
+    synchronized void added(final int index) {
+        if (this.removed.remove(index)) {
+            this.updated.add(index);
+        } else {
+            this.added.add(index);
+        }
+    }
+
+    /**
+     * @param index
+     *         the index of the updated case
+     */
+    synchronized void updated(final int index) {
+        if (!this.added.contains(index)) {
+            this.updated.add(index);
+        }
+    }
+
+    /**
+     * @param index
+     *         the index of the removed case
+     */
+    synchronized void removed(final int index) {
+        this.updated.remove(index);
+        if (!this.added.remove(index)) {
+            this.removed.add(index);
+        }
+    }
+
+    /**
+     * The whole model changed: the pending indices are discarded.
+     */
+    synchronized void reset() {
+        this.added.clear();
+        this.updated.clear();
+        this.removed.clear();
+        this.reset = true;
+    }
+
+    /**
+     * @return the changes accumulated so far, the accumulator being emptied
+     */
+    synchronized ResultChange drain() {
+        final ResultChange change = new ResultChange(this.reset, this.added, this.updated, this.removed);
+        this.reset();
+        this.reset = false;
+        return change;
+    }
+
+}
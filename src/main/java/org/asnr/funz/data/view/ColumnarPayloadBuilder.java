@@ -0,0 +1,213 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.view;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Base64;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import org.asnr.funz.data.model.CaseResults;
+
+/**
+ * Builds the columnar payload of the {@link HtmlVariablesUtils.Variable#DATA} variable: a JSON object
+ * <code>{"count": 3, "x": {...}, "y": {...}}</code> where {@code x} holds the parameters columns and {@code y} the
+ * values columns. A numeric column is <code>{"type": "float64", "data": "AAAAAAAA8D8..."}</code>, the base64 of its
+ * little-endian 64 bits floats, {@code NaN} for a missing value (see {@link CaseResults#isMissing(Object)}); in
+ * JavaScript: <code>new Float64Array(Uint8Array.from(atob(data), c =&gt; c.charCodeAt(0)).buffer)</code>. Any other
+ * column is <code>{"type": "string", "data": ["a", null, ...]}</code>.<br>
+ * The buffers are reused from one payload to the next.
+ *
+ * @author Arnaud Trouche - ARTENUM SARL
+ */
+public final class ColumnarPayloadBuilder {
+
+    private final StringBuilder json;
+
+    private ByteBuffer bytes;
+
+    private double[] numbers;
+
+    /**
+     * Creates a {@link ColumnarPayloadBuilder} with empty buffers.
+     */
+    public ColumnarPayloadBuilder() {
+        this.json = new StringBuilder();
+        this.bytes = ByteBuffer.allocate(0);
+        this.numbers = new double[0];
+    }
+
+    /**
+     * Builds the payload.
+     *
+     * @param rowCount
+     *         the number of rows
+     * @param parameters
+     *         the parameters columns, giving the value of each row
+     * @param values
+     *         the values columns, giving the value of each row
+     * @return the JSON payload
+     */
+    public synchronized String build(final int rowCount, final Map<String, IntFunction<Object>> parameters,
+            final Map<String, IntFunction<Object>> values) {
+        this.json.setLength(0);
+        if (this.numbers.length < rowCount) {
+            this.numbers = new double[rowCount];
+            this.bytes = ByteBuffer.allocate(rowCount * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        this.json.append("{\"count\":").append(rowCount).append(",\"x\":");
+        this.appendColumns(rowCount, parameters);
+        this.json.append(",\"y\":");
+        this.appendColumns(rowCount, values);
+        this.json.append('}');
+
+        final String payload = this.json.toString();
+        if (this.json.capacity() > 2 * payload.length() + 1024) {
+            // Do not keep a buffer sized for a much bigger payload
+            this.json.setLength(0);
+            this.json.trimToSize();
+        }
+        return payload;
+    }
+
+    private void appendColumns(final int rowCount, final Map<String, IntFunction<Object>> columns) {
+        this.json.append('{');
+        boolean first = true;
+        for (final Map.Entry<String, IntFunction<Object>> column : columns.entrySet()) {
+            if (!first) {
+                this.json.append(',');
+            }
+            first = false;
+            JsonUtils.appendString(this.json, column.getKey()).append(':');
+            if (this.fillNumbers(rowCount, column.getValue())) {
+                this.appendNumbers(rowCount);
+            } else {
+                this.appendStrings(rowCount, column.getValue());
+            }
+        }
+        this.json.append('}');
+    }
+
+    /**
+     * Fills the numbers buffer with the values of a column.
+     *
+     * @return {@code false} if a value is not numeric
+     */
+    private boolean fillNumbers(final int rowCount, final IntFunction<Object> column) {
+        for (int row = 0; row < rowCount; row++) {
+            final Object value = column.apply(row);
+            if (CaseResults.isMissing(value)) {
+                // Pending or failed case
+                this.numbers[row] = Double.NaN;
+            } else if (value instanceof final Number number) {
+                this.numbers[row] = number.doubleValue();
+            } else if (value instanceof final String text && ColumnarPayloadBuilder.isNumeric(text)) {
+                this.numbers[row] = Double.parseDouble(text);
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void appendNumbers(final int rowCount) {
+        this.bytes.clear();
+        for (int row = 0; row < rowCount; row++) {
+            this.bytes.putDouble(this.numbers[row]);
+        }
+        this.bytes.flip();
+        final ByteBuffer encoded = Base64.getEncoder().encode(this.bytes);
+        this.json.append("{\"type\":\"float64\",\"data\":\"");
+        while (encoded.hasRemaining()) {
+            this.json.append((char) encoded.get());
+        }
+        this.json.append("\"}");
+    }
+
+    private void appendStrings(final int rowCount, final IntFunction<Object> column) {
+        this.json.append("{\"type\":\"string\",\"data\":[");
+        for (int row = 0; row < rowCount; row++) {
+            if (row > 0) {
+                this.json.append(',');
+            }
+            final Object value = column.apply(row);
+            if (value == null) {
+                this.json.append("null");
+            } else {
+                JsonUtils.appendString(this.json, value.toString());
+            }
+        }
+        this.json.append("]}");
+    }
+
+    /**
+     * Checks if a text is a decimal number, without relying on a {@link NumberFormatException}.
+     *
+     * @param text
+     *         the text, may be {@code null}
+     * @return {@code true} if {@link Double#parseDouble(String)} accepts it as a decimal number, {@code NaN} or an
+     *         infinity
+     */
+    public static boolean isNumeric(final String text) {
+        if (text == null) {
+            return false;
+        }
+        final String value = text.strip();
+        int i = 0;
+        final int length = value.length();
+        if (i < length && (value.charAt(i) == '+' || value.charAt(i) == '-')) {
+            i++;
+        }
+        if (value.startsWith("NaN", i) || value.startsWith("Infinity", i)) {
+            return value.length() == i + (value.charAt(i) == 'N' ? 3 : 8);
+        }
+
+        int digits = 0;
+        while (i < length && ColumnarPayloadBuilder.isDigit(value.charAt(i))) {
+            i++;
+            digits++;
+        }
+        if (i < length && value.charAt(i) == '.') {
+            i++;
+            while (i < length && ColumnarPayloadBuilder.isDigit(value.charAt(i))) {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (i < length && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (value.charAt(i) == '+' || value.charAt(i) == '-')) {
+                i++;
+            }
+            final int exponentStart = i;
+            while (i < length && ColumnarPayloadBuilder.isDigit(value.charAt(i))) {
+                i++;
+            }
+            if (i == exponentStart) {
+                return false;
+            }
+        }
+        return i == length;
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -33,7 +33,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Class representing an HTML template able to display files with specific extensions.
+ * Class representing an HTML template able to display files with specific extensions.<br>
+ * A file bigger than the {@code org.asnr.funz.dataview.html.inline.max.size} system property (16 MiB by default) is
+ * not inlined: {@code $$CONTENT$$} is empty and {@code $$STREAMED$$} is {@code true}. Once loaded, the page reads the
+ * file through the {@code funzFile} JavaScript object, see {@link MappedFileReader}, and its
+ * {@code funzFileReady(funzFile)} function is called if defined.
  *
  * @author Arnaud Trouche - ARTENUM SARL
  */
@@ -41,15 +45,25 @@ public class HtmlFileViewer {
 
     private static final Logger logger = LoggerFactory.getLogger(HtmlFileViewer.class);
 
+    /**
+     * Property giving the size in bytes above which a file is streamed instead of being inlined in the template.
+     */
+    private static final String INLINE_MAX_SIZE_PROPERTY = "org.asnr.funz.dataview.html.inline.max.size";
+
+    /**
+     * Default size in bytes above which a file is streamed.
+     */
+    private static final long DEFAULT_INLINE_MAX_SIZE = 16L * 1024 * 1024;
+
     /**
      * The HTML file used to load the file.
      */
     private final File templateFile;
 
     /**
-     * The file content of the template to be loaded into the webview.
+     * The template to be loaded into the webview, compiled once.
      */
-    private final String templateContent;
+    private final HtmlTemplate template;
 
     /**
      * List of the extensions handled by this template. <br>
@@ -57,6 +71,11 @@ public class HtmlFileViewer {
      */
     private final List<String> extensions;
 
+    /**
+     * Size in bytes above which a file is streamed instead of being inlined in the template.
+     */
+    private final long inlineMaxSize;
+
     /**
      * Map of the functions to be used to replace the values of the variables with the real content.
      */
@@ -67,18 +86,40 @@ public class HtmlFileViewer {
      *         the file that contains the HTML code for custom file displaying
      */
     public HtmlFileViewer(final File template) {
-        this.templateFile = template;
-        this.extensions = new ArrayList<>();
+        this(template, HtmlTemplate.compile(HtmlVariablesUtils.getTemplateContent(template)));
+    }
+
+    /**
+     * @param templateFile
+     *         the file that contains the HTML code for custom file displaying
+     * @param template
+     *         the template already compiled from this file, see {@link TemplateRegistry}
+     */
+    HtmlFileViewer(final File templateFile, final HtmlTemplate template) {
+        this(templateFile, template, Long.getLong(HtmlFileViewer.INLINE_MAX_SIZE_PROPERTY,
+                HtmlFileViewer.DEFAULT_INLINE_MAX_SIZE));
+    }
 
-        // Load file
-        this.templateContent = HtmlVariablesUtils.getTemplateContent(this.templateFile);
+    /**
+     * @param templateFile
+     *         the file that contains the HTML code for custom file displaying
+     * @param template
+     *         the template already compiled from this file
+     * @param inlineMaxSize
+     *         the size in bytes above which a file is streamed instead of being inlined in the template
+     */
+    HtmlFileViewer(final File templateFile, final HtmlTemplate template, final long inlineMaxSize) {
+        this.templateFile = templateFile;
+        this.inlineMaxSize = inlineMaxSize;
+        this.extensions = new ArrayList<>();
+        this.template = template;
 
         // Setup variable replacement
         this.substitutions = new EnumMap<>(HtmlVariablesUtils.Variable.class);
         this.substitutions.put(HtmlVariablesUtils.Variable.PATH, this.templateFile.getParentFile()::getAbsolutePath);
 
         // Extract extensions
-        if (!"".equals(this.templateContent)) {
+        if (!this.template.isEmpty()) {
             this.extractExtensions();
         }
     }
@@ -97,9 +138,8 @@ public class HtmlFileViewer {
         }
 
         // Check file contains variables
-        final String contentVariable = HtmlVariablesUtils.Variable.CONTENT.getValue();
-        final String pathVariable = HtmlVariablesUtils.Variable.FILENAME.getValue();
-        if (!this.templateContent.contains(contentVariable) && !this.templateContent.contains(pathVariable)) {
+        if (!this.template.contains(HtmlVariablesUtils.Variable.CONTENT) && !this.template.contains(
+                HtmlVariablesUtils.Variable.FILENAME)) {
             ok = false;
             if (HtmlFileViewer.logger.isInfoEnabled()) {
                 HtmlFileViewer.logger.info(
@@ -122,6 +162,16 @@ public class HtmlFileViewer {
         return this.extensions;
     }
 
+    /**
+     * @param file
+     *         the file to display
+     * @return {@code true} if the file is too big to be inlined in the template: the page must then read it through a
+     *         {@link MappedFileReader}
+     */
+    public boolean isStreamed(final File file) {
+        return file.length() > this.inlineMaxSize;
+    }
+
     /**
      * @param fileToLoad
      *         the file to load into the HTML
@@ -129,28 +179,30 @@ public class HtmlFileViewer {
      */
     public String getContent(final File fileToLoad) {
         final File absoluteFile = fileToLoad.getAbsoluteFile();
-        if (this.templateContent.contains(HtmlVariablesUtils.Variable.FILENAME.getValue())) {
-            this.substitutions.put(HtmlVariablesUtils.Variable.FILENAME, absoluteFile::getName);
-        }
-        if (this.templateContent.contains(HtmlVariablesUtils.Variable.DIR.getValue())) {
-            this.substitutions.put(HtmlVariablesUtils.Variable.DIR, absoluteFile::getParent);
-        }
-        if (this.templateContent.contains(HtmlVariablesUtils.Variable.BASE.getValue())) {
-            this.substitutions.put(HtmlVariablesUtils.Variable.BASE, absoluteFile::getParent);
-        }
-        if (this.templateContent.contains(HtmlVariablesUtils.Variable.CONTENT.getValue())) {
-            this.substitutions.put(HtmlVariablesUtils.Variable.CONTENT, () -> {
-                try {
-                    return HtmlFileViewer.loadFileContent(absoluteFile);
-                } catch (final IOException e) {
-                    HtmlFileViewer.logger.warn(
-                            ResultsDictionary.UNABLE_TO_LOAD_FILE.getString(absoluteFile.getName(), e.getMessage()));
-                    HtmlFileViewer.logger.debug(e.getMessage(), e);
-                    return "Cannot read " + absoluteFile;
-                }
-            });
-        }
-        return HtmlVariablesUtils.replaceVariables(this.templateContent, this.substitutions);
+        final boolean streamed = this.isStreamed(absoluteFile);
+
+        // The template only calls the suppliers of the variables it contains
+        final Map<HtmlVariablesUtils.Variable, Supplier<String>> fileSubstitutions = new EnumMap<>(this.substitutions);
+        fileSubstitutions.put(HtmlVariablesUtils.Variable.FILENAME, absoluteFile::getName);
+        fileSubstitutions.put(HtmlVariablesUtils.Variable.DIR, absoluteFile::getParent);
+        fileSubstitutions.put(HtmlVariablesUtils.Variable.BASE, absoluteFile::getParent);
+        fileSubstitutions.put(HtmlVariablesUtils.Variable.SIZE, () -> String.valueOf(absoluteFile.length()));
+        fileSubstitutions.put(HtmlVariablesUtils.Variable.STREAMED, () -> String.valueOf(streamed));
+        fileSubstitutions.put(HtmlVariablesUtils.Variable.CONTENT, () -> {
+            if (streamed) {
+                // Read on demand by the page
+                return "";
+            }
+            try {
+                return HtmlFileViewer.loadFileContent(absoluteFile);
+            } catch (final IOException e) {
+                HtmlFileViewer.logger.warn(
+                        ResultsDictionary.UNABLE_TO_LOAD_FILE.getString(absoluteFile.getName(), e.getMessage()));
+                HtmlFileViewer.logger.debug(e.getMessage(), e);
+                return "Cannot read " + absoluteFile;
+            }
+        });
+        return this.template.render(fileSubstitutions);
     }
 
     /**
@@ -0,0 +1,150 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.view;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.asnr.funz.data.view.HtmlVariablesUtils.Variable;
+
+/**
+ * HTML template compiled once into literal segments and {@link Variable} slots, so that it is rendered in a single pass
+ * into a buffer of the final size. The values are only computed for the variables the template contains, and they are
+ * inserted as is: a variable inside a value is not replaced.
+ *
+ * @author Arnaud Trouche - ARTENUM SARL
+ */
+public final class HtmlTemplate {
+
+    /**
+     * The literal segments, one more than the slots: the slot {@code i} is between the segments {@code i} and
+     * {@code i + 1}.
+     */
+    private final String[] literals;
+
+    private final Variable[] slots;
+
+    private final Set<Variable> variables;
+
+    /**
+     * Length of all the literal segments.
+     */
+    private final int literalsLength;
+
+    private HtmlTemplate(final List<String> literals, final List<Variable> slots) {
+        this.literals = literals.toArray(String[]::new);
+        this.slots = slots.toArray(Variable[]::new);
+        this.variables = slots.isEmpty() ? EnumSet.noneOf(Variable.class) : EnumSet.copyOf(slots);
+        int length = 0;
+        for (final String literal : this.literals) {
+            length += literal.length();
+        }
+        this.literalsLength = length;
+    }
+
+    /**
+     * @param content
+     *         the HTML content containing variables
+     * @return the compiled template
+     */
+    public static HtmlTemplate compile(final String content) {
+        final Variable[] allVariables = Variable.values();
+        final List<String> literals = new ArrayList<>();
+        final List<Variable> slots = new ArrayList<>();
+        int literalStart = 0;
+        int i = 0;
+        while (i < content.length()) {
+            final Variable variable = HtmlTemplate.variableAt(content, i, allVariables);
+            if (variable == null) {
+                i++;
+            } else {
+                literals.add(content.substring(literalStart, i));
+                slots.add(variable);
+                i += variable.getValue().length();
+                literalStart = i;
+            }
+        }
+        literals.add(content.substring(literalStart));
+        return new HtmlTemplate(literals, slots);
+    }
+
+    private static Variable variableAt(final String content, final int index, final Variable[] allVariables) {
+        final char c = content.charAt(index);
+        for (final Variable variable : allVariables) {
+            final String value = variable.getValue();
+            if (value.charAt(0) == c && content.startsWith(value, index)) {
+                return variable;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param variable
+     *         a variable
+     * @return {@code true} if the template contains the variable
+     */
+    public boolean contains(final Variable variable) {
+        return this.variables.contains(variable);
+    }
+
+    /**
+     * @return {@code true} if the template has no content
+     */
+    public boolean isEmpty() {
+        return this.slots.length == 0 && this.literalsLength == 0;
+    }
+
+    /**
+     * Renders the template. Each supplier is called at most once, and only if the template contains its variable. The
+     * variables without supplier are kept as is, except {@link Variable#LIB} which defaults to the absolute path of
+     * the {@code lib} folder.
+     *
+     * @param substitutions
+     *         the suppliers of the values of the variables
+     * @return the content to be shown inside webview
+     */
+    public String render(final Map<Variable, Supplier<String>> substitutions) {
+        final Map<Variable, String> values = new EnumMap<>(Variable.class);
+        for (final Variable variable : this.variables) {
+            final Supplier<String> supplier = substitutions.get(variable);
+            if (supplier != null) {
+                values.put(variable, supplier.get());
+            } else if (variable == Variable.LIB) {
+                // "Handmade" lib folder
+                values.put(variable, new File("lib").getAbsolutePath());
+            } else {
+                values.put(variable, variable.getValue());
+            }
+        }
+
+        long length = this.literalsLength;
+        for (final Variable slot : this.slots) {
+            length += values.get(slot).length();
+        }
+        final StringBuilder result = new StringBuilder((int) Math.min(length, Integer.MAX_VALUE - 8));
+        for (int i = 0; i < this.slots.length; i++) {
+            result.append(this.literals[i]).append(values.get(this.slots[i]));
+        }
+        result.append(this.literals[this.slots.length]);
+        return result.toString();
+    }
+}
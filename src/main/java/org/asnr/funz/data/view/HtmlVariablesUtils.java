@@ -18,7 +18,6 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -59,7 +58,8 @@ public final class HtmlVariablesUtils {
 
     /**
      * From the content of the HTML file containing variables, replace them with the correct substitutions and return
-     * the final content to be displayed
+     * the final content to be displayed. Compiles the content each time: a content rendered several times should be
+     * compiled once with {@link HtmlTemplate#compile(String)}.
      *
      * @param input
      *         the input HTML content
@@ -68,15 +68,7 @@ public final class HtmlVariablesUtils {
      * @return the content to be shown inside webview
      */
     public static String replaceVariables(final String input, final Map<Variable, Supplier<String>> substitutions) {
-        String result = input;
-        for (final Entry<Variable, Supplier<String>> entry : substitutions.entrySet()) {
-            result = result.replace(entry.getKey().value, entry.getValue().get());
-        }
-
-        // "Handmade" lib folder
-        result = result.replace(Variable.LIB.value, new File("lib").getAbsolutePath());
-
-        return result;
+        return HtmlTemplate.compile(input).render(substitutions);
     }
 
     /**
@@ -126,7 +118,7 @@ public final class HtmlVariablesUtils {
 
     /**
      * Represent a variable that can be present in HTML files.<br>
-     * Then, they are replaced inside {@link HtmlVariablesUtils#replaceVariables(String, Map)} method.
+     * Then, they are replaced inside {@link HtmlTemplate#render(Map)} method.
      *
      * @author Arnaud Trouche - ARTENUM SARL
      */
@@ -134,11 +126,24 @@ public final class HtmlVariablesUtils {
     public enum Variable {
         CONTENT("$$CONTENT$$"),
         BASE("__BASE__"),
+        /**
+         * Parameters and values of all the cases as typed columns, see {@link ColumnarPayloadBuilder}.
+         */
+        DATA("$$DATA$$"),
         DIR("$$DIR$$"),
         FILENAME("$$FILENAME$$"),
         LIB("$$LIB$$"),
         NAME("$$NAME$$"),
         PATH("$$PATH$$"),
+        /**
+         * Size of the displayed file in bytes.
+         */
+        SIZE("$$SIZE$$"),
+        /**
+         * {@code true} if the displayed file is too big to be inlined: {@link #CONTENT} is then empty and the file is
+         * read on demand, see {@link MappedFileReader}.
+         */
+        STREAMED("$$STREAMED$$"),
         PARAMETERS("$$X$$"),
         VALUES("$$Y$$");
 
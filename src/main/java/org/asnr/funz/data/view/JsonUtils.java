@@ -0,0 +1,129 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.view;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Writes the data pushed to the HTML views as JSON, which is also valid JavaScript to pass to
+ * {@link javafx.scene.web.WebEngine#executeScript(String)}.
+ *
+ * @author Arnaud Trouche - ARTENUM SARL
+ */
+public final class JsonUtils {
+
+    /**
+     * Appends a value: finite numbers as numbers (others as {@code null}), booleans, collections, arrays of numbers and
+     * maps with their keys as strings, any other object as the string of {@link Object#toString()}.
+     *
+     * @param builder
+     *         the builder to append to
+     * @param value
+     *         the value, may be {@code null}
+     * @return the builder
+     */
+    public static StringBuilder appendValue(final StringBuilder builder, final Object value) {
+        if (value == null) {
+            builder.append("null");
+        } else if (value instanceof final Double d) {
+            JsonUtils.appendNumber(builder, d);
+        } else if (value instanceof final Float f) {
+            JsonUtils.appendNumber(builder, f);
+        } else if (value instanceof Number || value instanceof Boolean) {
+            builder.append(value);
+        } else if (value instanceof final double[] array) {
+            builder.append('[');
+            for (int i = 0; i < array.length; i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                JsonUtils.appendNumber(builder, array[i]);
+            }
+            builder.append(']');
+        } else if (value instanceof final Collection<?> collection) {
+            builder.append('[');
+            boolean first = true;
+            for (final Object element : collection) {
+                if (!first) {
+                    builder.append(',');
+                }
+                first = false;
+                JsonUtils.appendValue(builder, element);
+            }
+            builder.append(']');
+        } else if (value instanceof final Map<?, ?> map) {
+            builder.append('{');
+            boolean first = true;
+            for (final Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!first) {
+                    builder.append(',');
+                }
+                first = false;
+                JsonUtils.appendString(builder, String.valueOf(entry.getKey())).append(':');
+                JsonUtils.appendValue(builder, entry.getValue());
+            }
+            builder.append('}');
+        } else {
+            JsonUtils.appendString(builder, value.toString());
+        }
+        return builder;
+    }
+
+    private static void appendNumber(final StringBuilder builder, final double value) {
+        if (Double.isFinite(value)) {
+            builder.append(value);
+        } else {
+            builder.append("null");
+        }
+    }
+
+    /**
+     * Appends a quoted string. Besides the JSON escapes, the line and paragraph separators are escaped so that the
+     * result is also valid JavaScript.
+     *
+     * @param builder
+     *         the builder to append to
+     * @param value
+     *         the string
+     * @return the builder
+     */
+    public static StringBuilder appendString(final StringBuilder builder, final String value) {
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+            case '"' -> builder.append("\\\"");
+            case '\\' -> builder.append("\\\\");
+            case '\n' -> builder.append("\\n");
+            case '\r' -> builder.append("\\r");
+            case '\t' -> builder.append("\\t");
+            default -> {
+                if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                    builder.append(String.format("\\u%04x", (int) c));
+                } else {
+                    builder.append(c);
+                }
+            }
+            }
+        }
+        return builder.append('"');
+    }
+
+    private JsonUtils() {
+        // Suppress default constructor for noninstantiability.
+        throw new AssertionError();
+    }
+}
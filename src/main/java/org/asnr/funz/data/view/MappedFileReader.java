@@ -0,0 +1,332 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.view;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Reads parts of a file on demand through memory-mapped windows, so that an HTML view can display a file too big to
+ * be inlined in its template. It is given to the page as the {@code funzFile} JavaScript object, see
+ * {@link HtmlFileViewer}:
+ * <ul>
+ *     <li>{@code funzFile.getSize()}: the size of the file in bytes</li>
+ *     <li>{@code funzFile.readBytes(offset, length)}: the Base64 of a range of bytes</li>
+ *     <li>{@code funzFile.getLineCount()}: the number of lines, the whole file being scanned the first time</li>
+ *     <li>{@code funzFile.readLines(first, count)}: the JSON array of the UTF-8 text of a range of lines, from 0</li>
+ * </ul>
+ * A call returns at most {@link #MAX_CHUNK_SIZE} bytes of the file: a longer range of bytes is truncated, a longer
+ * range of lines ends with the last complete line, the page reading the next ones with another call. The lines are
+ * found through a sparse index of the start of every {@link #LINES_PER_MARK} lines, built while they are read.
+ *
+ * @author Arnaud Trouche - ARTENUM SARL
+ */
+public final class MappedFileReader implements Closeable {
+
+    /**
+     * Maximal number of bytes of the file returned by a call.
+     */
+    public static final int MAX_CHUNK_SIZE = 8 * 1024 * 1024;
+
+    /**
+     * Size of the memory-mapped windows of the file.
+     */
+    private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Number of lines between two marks of the line index.
+     */
+    private static final int LINES_PER_MARK = 1024;
+
+    private final FileChannel channel;
+
+    private final long size;
+
+    private final int windowSize;
+
+    private final int linesPerMark;
+
+    private final int maxChunkSize;
+
+    /**
+     * The currently mapped window, {@code null} until needed.
+     */
+    private MappedByteBuffer window;
+
+    /**
+     * Position of the current window in the file.
+     */
+    private long windowStart;
+
+    /**
+     * Start of every {@link #linesPerMark} lines: {@code lineMarks[k]} is the start of the line
+     * {@code k * linesPerMark}.
+     */
+    private long[] lineMarks;
+
+    /**
+     * Number of lines whose start was found.
+     */
+    private long indexedLines;
+
+    /**
+     * Position of the first byte not yet scanned to find the lines.
+     */
+    private long indexedPosition;
+
+    /**
+     * @param file
+     *         the file to read
+     * @throws IOException
+     *         if unable to open the file
+     */
+    public MappedFileReader(final File file) throws IOException {
+        this(file, MappedFileReader.WINDOW_SIZE, MappedFileReader.LINES_PER_MARK, MappedFileReader.MAX_CHUNK_SIZE);
+    }
+
+    /**
+     * @param file
+     *         the file to read
+     * @param windowSize
+     *         the size of the memory-mapped windows
+     * @param linesPerMark
+     *         the number of lines between two marks of the line index
+     * @param maxChunkSize
+     *         the maximal number of bytes of the file returned by a call
+     * @throws IOException
+     *         if unable to open the file
+     */
+    MappedFileReader(final File file, final int windowSize, final int linesPerMark, final int maxChunkSize)
+            throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.size = this.channel.size();
+        this.windowSize = windowSize;
+        this.linesPerMark = linesPerMark;
+        this.maxChunkSize = maxChunkSize;
+        this.windowStart = -1L;
+        this.lineMarks = new long[16];
+        if (this.size > 0L) {
+            // The first line starts with the file, its mark is 0
+            this.indexedLines = 1L;
+        }
+    }
+
+    /**
+     * @return the size of the file in bytes
+     */
+    public long getSize() {
+        return this.size;
+    }
+
+    /**
+     * @param offset
+     *         the position of the first byte
+     * @param length
+     *         the number of bytes, at most {@link #MAX_CHUNK_SIZE}
+     * @return the Base64 of the bytes, fewer at the end of the file
+     * @throws IOException
+     *         if unable to read the file
+     */
+    public synchronized String readBytes(final long offset, final int length) throws IOException {
+        MappedFileReader.checkRange(offset, length);
+        final int count = (int) Math.max(0L, Math.min(Math.min(length, this.maxChunkSize),
+                this.size - offset));
+        final byte[] bytes = new byte[count];
+        this.read(offset, bytes);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    /**
+     * @return the number of lines of the file
+     * @throws IOException
+     *         if unable to read the file
+     */
+    public synchronized long getLineCount() throws IOException {
+        this.indexUpTo(Long.MAX_VALUE);
+        return this.indexedLines;
+    }
+
+    /**
+     * @param first
+     *         the first line, from 0
+     * @param count
+     *         the number of lines
+     * @return the JSON array of the lines without their line terminator, fewer at the end of the file or beyond
+     *         {@link #MAX_CHUNK_SIZE} bytes, a single line longer than that being truncated
+     * @throws IOException
+     *         if unable to read the file
+     */
+    public synchronized String readLines(final long first, final int count) throws IOException {
+        MappedFileReader.checkRange(first, count);
+        final long start = this.lineStart(first);
+        final long linesEnd = this.lineStart(first + count);
+        final long end = Math.min(linesEnd, start + this.maxChunkSize);
+        final byte[] bytes = new byte[(int) (end - start)];
+        this.read(start, bytes);
+
+        int length = bytes.length;
+        if (end < linesEnd) {
+            // Ends with the last complete line, so that no line is returned partially as a whole one
+            while (length > 0 && bytes[length - 1] != '\n') {
+                length--;
+            }
+            if (length == 0) {
+                length = MappedFileReader.characterBoundary(bytes);
+            }
+        }
+
+        final StringBuilder json = new StringBuilder(length + 16).append('[');
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = lineStart;
+            while (lineEnd < length && bytes[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            final int nextLine = lineEnd + 1;
+            if (lineEnd > lineStart && bytes[lineEnd - 1] == '\r') {
+                lineEnd--;
+            }
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            JsonUtils.appendString(json, new String(bytes, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8));
+            lineStart = nextLine;
+        }
+        return json.append(']').toString();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        this.window = null;
+        this.channel.close();
+    }
+
+    /**
+     * @return the length of the given UTF-8 bytes without their last character if it is incomplete
+     */
+    private static int characterBoundary(final byte[] bytes) {
+        // The lead byte of the last character is at most 3 bytes before the end
+        int lead = bytes.length - 1;
+        while (lead > 0 && bytes.length - lead < 4 && (bytes[lead] & 0xC0) == 0x80) {
+            lead--;
+        }
+        final int leadByte = bytes[lead] & 0xFF;
+        final int characterLength;
+        if (leadByte >= 0xF0) {
+            characterLength = 4;
+        } else if (leadByte >= 0xE0) {
+            characterLength = 3;
+        } else if (leadByte >= 0xC0) {
+            characterLength = 2;
+        } else {
+            characterLength = 1;
+        }
+        return lead + characterLength > bytes.length ? lead : bytes.length;
+    }
+
+    private static void checkRange(final long offset, final int length) {
+        if (offset < 0L || length < 0) {
+            throw new IllegalArgumentException("Invalid range: " + offset + ", " + length);
+        }
+    }
+
+    /**
+     * @return the start of the given line, the size of the file if there are fewer lines
+     */
+    private long lineStart(final long line) throws IOException {
+        this.indexUpTo(line);
+        if (line >= this.indexedLines) {
+            return this.size;
+        }
+
+        // Scans from the previous mark
+        long position = this.lineMarks[(int) (line / this.linesPerMark)];
+        long remaining = line % this.linesPerMark;
+        while (remaining > 0L) {
+            if (this.byteAt(position) == '\n') {
+                remaining--;
+            }
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * Finds the start of the lines until the given one, or the end of the file.
+     */
+    private void indexUpTo(final long line) throws IOException {
+        while (this.indexedLines <= line && this.indexedPosition < this.size) {
+            final MappedByteBuffer buffer = this.windowAt(this.indexedPosition);
+            final int limit = buffer.limit();
+            int index = (int) (this.indexedPosition - this.windowStart);
+            while (index < limit && this.indexedLines <= line) {
+                if (buffer.get(index) == '\n' && this.windowStart + index + 1 < this.size) {
+                    this.addLineStart(this.windowStart + index + 1);
+                }
+                index++;
+            }
+            this.indexedPosition = this.windowStart + index;
+        }
+    }
+
+    private void addLineStart(final long position) {
+        if (this.indexedLines % this.linesPerMark == 0L) {
+            final int mark = (int) (this.indexedLines / this.linesPerMark);
+            if (mark == this.lineMarks.length) {
+                this.lineMarks = Arrays.copyOf(this.lineMarks, 2 * mark);
+            }
+            this.lineMarks[mark] = position;
+        }
+        this.indexedLines++;
+    }
+
+    private byte byteAt(final long position) throws IOException {
+        final MappedByteBuffer buffer = this.windowAt(position);
+        return buffer.get((int) (position - this.windowStart));
+    }
+
+    private void read(final long offset, final byte[] bytes) throws IOException {
+        long position = offset;
+        int done = 0;
+        while (done < bytes.length) {
+            final MappedByteBuffer buffer = this.windowAt(position);
+            final int index = (int) (position - this.windowStart);
+            final int length = Math.min(bytes.length - done, buffer.limit() - index);
+            buffer.get(index, bytes, done, length);
+            done += length;
+            position += length;
+        }
+    }
+
+    /**
+     * @return the window containing the given position, mapped if needed
+     */
+    private MappedByteBuffer windowAt(final long position) throws IOException {
+        final long start = position - position % this.windowSize;
+        if (this.window == null || start != this.windowStart) {
+            final long length = Math.min(this.windowSize, this.size - start);
+            this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            this.windowStart = start;
+        }
+        return this.window;
+    }
+}
@@ -14,11 +14,10 @@
  */
 package org.asnr.funz.data.view;
 
-import java.util.Collection;
 import java.util.Locale;
 import java.util.Map;
+import java.util.function.UnaryOperator;
 
-import org.asnr.funz.data.dataminer.TableDataMiner;
 import org.asnr.funz.data.model.CaseResults;
 import org.asnr.funz.data.model.DiscreteCaseResults;
 import org.asnr.funz.data.view.common.ResultCaseTableCell;
@@ -31,19 +30,21 @@ import org.asnr.funz.data.view.common.ResultCaseTableCell;
  */
 public class MultipleResultTableCell extends ResultCaseTableCell<CaseResults> {
 
-    private final Collection<DiscreteCaseResults> allResults;
+    private final UnaryOperator<DiscreteCaseResults> fallbackResult;
     private final Map<String, String> columnsFormat;
 
     /**
      * @param outputFunctionName
      *         name of the output function of the column
-     * @param results
+     * @param fallbackResult
+     *         gives, without blocking, the results of another project to display when a result is missing, or
+     *         {@code null} if none is known yet
      * @param columnsFormat
      */
-    public MultipleResultTableCell(final String outputFunctionName, final Collection<DiscreteCaseResults> results,
-            final Map<String, String> columnsFormat) {
+    public MultipleResultTableCell(final String outputFunctionName,
+            final UnaryOperator<DiscreteCaseResults> fallbackResult, final Map<String, String> columnsFormat) {
         super(() -> outputFunctionName);
-        this.allResults = results;
+        this.fallbackResult = fallbackResult;
         this.columnsFormat = columnsFormat;
     }
 
@@ -73,13 +74,15 @@ public class MultipleResultTableCell extends ResultCaseTableCell<CaseResults> {
     @Override
     public void updateItem(final DiscreteCaseResults result, final boolean empty) {
         super.updateItem(result, empty);
-        if (!empty && (this.getText() == null || this.getText().equals("?")) && this.allResults != null) {
-            this.getStyleClass().add("highlighted-table-cell2");
-            for (final DiscreteCaseResults otherResults : TableDataMiner.getSimilarResults(result, this.allResults)) {
+        if (!empty && (result != null) && (this.getText() == null || this.getText().equals("?"))
+                && this.fallbackResult != null) {
+            if (!this.getStyleClass().contains("highlighted-table-cell2")) {
+                this.getStyleClass().add("highlighted-table-cell2");
+            }
+            // Resolved in the background, the row is rendered again once known
+            final DiscreteCaseResults otherResults = this.fallbackResult.apply(result);
+            if (otherResults != null) {
                 super.updateItem(otherResults, empty);
-                if (this.getText() != null && !this.getText().contentEquals("?")) {
-                    break;
-                }
             }
         } else {
             this.getStyleClass().remove("highlighted-table-cell2");
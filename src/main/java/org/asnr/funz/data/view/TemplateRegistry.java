@@ -0,0 +1,304 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.view;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Process-wide cache of the HTML templates: each template is read and compiled once, whatever the number of opened
+ * projects, and the template folders are listed once. The folders are watched, so that a template is read again as
+ * soon as it is modified and the registered {@link TemplateListener}s can reload their views.
+ *
+ * @author Arnaud Trouche - ARTENUM SARL
+ */
+public final class TemplateRegistry implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TemplateRegistry.class);
+
+    private static final String HTML_SUFFIX = ".html";
+
+    /**
+     * Listener of the changes of the templates, called in the watching thread.
+     */
+    @FunctionalInterface
+    public interface TemplateListener {
+
+        /**
+         * @param template
+         *         the absolute template file that was created, modified or deleted
+         */
+        void templateChanged(File template);
+    }
+
+    /**
+     * Lazily created registry shared by the whole application.
+     */
+    private static final class Shared {
+        private static final TemplateRegistry INSTANCE = new TemplateRegistry();
+    }
+
+    /**
+     * The compiled templates, by absolute file.
+     */
+    private final Map<File, HtmlTemplate> templates;
+
+    /**
+     * The sorted templates of the folders, by absolute folder.
+     */
+    private final Map<File, List<File>> listings;
+
+    /**
+     * The watched folders, by watch key.
+     */
+    private final Map<WatchKey, File> watchedFolders;
+
+    /**
+     * The listeners, weakly referenced.
+     */
+    private final Set<TemplateListener> listeners;
+
+    /**
+     * The watch service, {@code null} if the file system cannot be watched: the templates are then never reloaded.
+     */
+    private final WatchService watchService;
+
+    /**
+     * Whether the thread processing the watch events is started.
+     */
+    private final AtomicBoolean watching;
+
+    /**
+     * The file viewers of the {@link HtmlVariablesUtils.Location#EXTENSIONS} folder, by extension, {@code null} until
+     * needed.
+     */
+    private volatile Map<String, HtmlFileViewer> fileViewers;
+
+    /**
+     * Creates a registry, watching its folders in a background thread started with the first watched folder.
+     */
+    TemplateRegistry() {
+        this.templates = new ConcurrentHashMap<>();
+        this.listings = new ConcurrentHashMap<>();
+        this.watchedFolders = new ConcurrentHashMap<>();
+        this.listeners = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+        this.watching = new AtomicBoolean();
+
+        WatchService service;
+        try {
+            service = FileSystems.getDefault().newWatchService();
+        } catch (final IOException e) {
+            TemplateRegistry.logger.warn("Unable to watch the HTML templates, they will not be reloaded: {}",
+                    e.getMessage());
+            service = null;
+        }
+        this.watchService = service;
+    }
+
+    /**
+     * @return the registry shared by the whole application
+     */
+    public static TemplateRegistry getShared() {
+        return Shared.INSTANCE;
+    }
+
+    /**
+     * @param template
+     *         the HTML template file
+     * @return the compiled template, read once until the file changes
+     */
+    public HtmlTemplate getTemplate(final File template) {
+        final File absoluteTemplate = template.getAbsoluteFile();
+        return this.templates.computeIfAbsent(absoluteTemplate, file -> {
+            // Watched before being read, so that a change meanwhile is not missed
+            this.watch(file.getParentFile());
+            return HtmlTemplate.compile(HtmlVariablesUtils.getTemplateContent(file));
+        });
+    }
+
+    /**
+     * @param folder
+     *         the folder containing the templates, may be {@code null}
+     * @return the absolute HTML files of the folder sorted by name, listed once until a template is created or deleted
+     */
+    public List<File> getTemplateFiles(final File folder) {
+        if (folder == null) {
+            return List.of();
+        }
+        return this.listings.computeIfAbsent(folder.getAbsoluteFile(), directory -> {
+            this.watch(directory);
+            return TemplateRegistry.listTemplates(directory);
+        });
+    }
+
+    /**
+     * @return the file viewers of the {@link HtmlVariablesUtils.Location#EXTENSIONS} folder by extension, built once
+     *         until a template of the folder changes
+     */
+    public Map<String, HtmlFileViewer> getFileViewers() {
+        Map<String, HtmlFileViewer> viewers = this.fileViewers;
+        if (viewers == null) {
+            final Map<String, HtmlFileViewer> extensions = new HashMap<>();
+            for (final File extensionFile : this.getTemplateFiles(HtmlVariablesUtils.Location.EXTENSIONS.getFolder())) {
+                final HtmlFileViewer viewer = new HtmlFileViewer(extensionFile, this.getTemplate(extensionFile));
+                for (final String ext : viewer.getExtensions()) {
+                    extensions.put(ext, viewer);
+                }
+            }
+            viewers = Collections.unmodifiableMap(extensions);
+            this.fileViewers = viewers;
+        }
+        return viewers;
+    }
+
+    /**
+     * Adds a listener of the template changes. The registry only keeps a weak reference to it: the caller must keep a
+     * strong reference as long as it listens.
+     *
+     * @param listener
+     *         the listener
+     */
+    public void addTemplateListener(final TemplateListener listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * @param listener
+     *         the listener to remove
+     */
+    public void removeTemplateListener(final TemplateListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.watchService != null) {
+            this.watchService.close();
+        }
+    }
+
+    private void watch(final File folder) {
+        if (this.watchService == null || folder == null || this.watchedFolders.containsValue(folder)) {
+            return;
+        }
+        try {
+            // Registering a folder twice gives the same key
+            final WatchKey key = folder.toPath().register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+            this.watchedFolders.put(key, folder);
+            if (this.watching.compareAndSet(false, true)) {
+                Thread.ofVirtual().name("FunzDataView-templates-watcher").start(this::processEvents);
+            }
+        } catch (final IOException | ClosedWatchServiceException e) {
+            TemplateRegistry.logger.warn("Unable to watch the HTML templates of '{}': {}", folder, e.getMessage());
+        }
+    }
+
+    private void processEvents() {
+        try {
+            while (true) {
+                final WatchKey key = this.watchService.take();
+                // Given by the key, which may be taken before being stored
+                final File folder = ((Path) key.watchable()).toFile();
+                final List<WatchEvent<?>> events = key.pollEvents();
+                if (!key.reset()) {
+                    this.watchedFolders.remove(key);
+                }
+                this.folderChanged(folder, events);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final ClosedWatchServiceException e) {
+            // Closed: nothing more to watch
+        }
+    }
+
+    private void folderChanged(final File folder, final List<WatchEvent<?>> events) {
+        final Set<File> changed = new LinkedHashSet<>();
+        for (final WatchEvent<?> event : events) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Some events were lost: all the templates of the folder may have changed
+                changed.addAll(this.listings.getOrDefault(folder, List.of()));
+                changed.addAll(TemplateRegistry.listTemplates(folder));
+                this.templates.keySet().removeIf(file -> folder.equals(file.getParentFile()));
+            } else {
+                final File file = folder.toPath().resolve((Path) event.context()).toFile();
+                if (file.getName().endsWith(TemplateRegistry.HTML_SUFFIX)) {
+                    changed.add(file);
+                }
+                this.templates.remove(file);
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        this.listings.remove(folder);
+        if (folder.equals(TemplateRegistry.absolute(HtmlVariablesUtils.Location.EXTENSIONS.getFolder()))) {
+            this.fileViewers = null;
+        }
+        TemplateRegistry.logger.debug("HTML templates changed: {}", changed);
+
+        final List<TemplateListener> currentListeners;
+        synchronized (this.listeners) {
+            currentListeners = List.copyOf(this.listeners);
+        }
+        for (final File template : changed) {
+            for (final TemplateListener listener : currentListeners) {
+                try {
+                    listener.templateChanged(template);
+                } catch (final RuntimeException e) {
+                    TemplateRegistry.logger.warn("Unable to reload the template '{}': {}", template.getName(),
+                            e.getMessage());
+                    TemplateRegistry.logger.debug(e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    private static List<File> listTemplates(final File folder) {
+        final File[] htmlFiles = folder.listFiles((dir, name) -> name.endsWith(TemplateRegistry.HTML_SUFFIX));
+        if (htmlFiles == null) {
+            return List.of();
+        }
+        Arrays.sort(htmlFiles);
+        return List.of(htmlFiles);
+    }
+
+    private static File absolute(final File file) {
+        return file == null ? null : file.getAbsoluteFile();
+    }
+}
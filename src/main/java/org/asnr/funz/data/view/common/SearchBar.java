@@ -111,6 +111,14 @@ public final class SearchBar extends HBox {
         return this.searchTextField.getText();
     }
 
+    /**
+     * @param text
+     *         the {@link String} to look for, searched with {@link #search()}
+     */
+    public void setSearchText(final String text) {
+        this.searchTextField.setText(text);
+    }
+
     /**
      * If there is already a result and a search, searches for the next occurrence of the search.
      */
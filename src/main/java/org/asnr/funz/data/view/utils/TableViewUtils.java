@@ -15,8 +15,11 @@
 package org.asnr.funz.data.view.utils;
 
 import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.asnr.funz.data.model.DiscreteCaseResults;
+import org.asnr.funz.data.model.SortKey;
 
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
@@ -62,51 +65,21 @@ public final class TableViewUtils {
         throw new AssertionError();
     }
     
+    /**
+     * @param name
+     *         the output function of the column
+     * @return a comparator of the cases on their pre-computed sort key for the given output function
+     */
     public static Comparator<DiscreteCaseResults> createDiscretCaseResultsColumnComparator(final String name) {
-        return (o1, o2) -> {
-            final Object r1 = o1.getResult(name);
-            final Object r2 = o2.getResult(name);
-
-            // Null handling
-            if (r1 == null || r2 == null) {
-                if (r1 != null) {
-                    return 1;
-                } else if (r2 != null) {
-                    return -1;
-                } else {
-                    return 0;
-                }
-            }
-
-            // Both numbers \-\> compare as doubles
-            switch (r1) {
-                case Number n1 when r2 instanceof Number n2 -> {
-                    return Double.compare(n1.doubleValue(), n2.doubleValue());
-                }
-
-
-                // Same class and Comparable \-\> use natural ordering
-                case Comparable<?> c1 when r1.getClass().equals(r2.getClass()) -> {
-                    @SuppressWarnings("unchecked") final Comparable<Object> cmp1 = (Comparable<Object>) c1;
-                    return cmp1.compareTo(r2);
-                }
-
-
-                // Handle double[] specially
-                case double[] array1 when r2 instanceof double[] array2 && array1.length > 0 && array2.length > 0 -> {
-                    return Double.compare(array1[0], array2[0]);
-                }
-                default -> {
-                    // Do nothing, fallback to toString comparison
-                }
-            }
-
-            // Fallback: compare string representations
-            return r1.toString().compareTo(r2.toString());
-        };
+        return (o1, o2) -> o1.getSortKey(name).compareTo(o2.getSortKey(name));
     }
 
+    /**
+     * @return a comparator of texts sorting numbers numerically, each distinct text being parsed only once
+     */
     public static Comparator<String> createStringColumnComparator() {
+        // Variable values are repeated among the cases: their keys are shared
+        final Map<String, SortKey> keys = new ConcurrentHashMap<>();
         return (s1, s2) -> {
 
             if (s1 == null && s2 == null) {
@@ -117,13 +90,7 @@ public final class TableViewUtils {
                 return -1;
             }
 
-            try {
-                final Double num1 = Double.parseDouble(s1);
-                final Double num2 = Double.parseDouble(s2);
-                return num1.compareTo(num2);
-            } catch (final NumberFormatException e) {
-                return s1.compareTo(s2);
-            }
+            return keys.computeIfAbsent(s1, SortKey::parse).compareTo(keys.computeIfAbsent(s2, SortKey::parse));
         };
     }
 
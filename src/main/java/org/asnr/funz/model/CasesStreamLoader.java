@@ -0,0 +1,381 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.model;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleConsumer;
+import java.util.stream.IntStream;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.funz.Project;
+import org.funz.parameter.Case;
+import org.funz.parameter.CaseList;
+import org.funz.util.Format;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * Streaming loader of the {@code cases.xml} result file.<br>
+ * The file is read with StAX: only the DOM of the {@code CASE} elements being read is built (as required by the
+ * {@link Case} constructor), so the memory used does not depend on the number of cases. Cases are read by batches: the
+ * outputs of a batch are decoded on a {@link ForkJoinPool} (when the parallelism is greater than 1), then the batch is
+ * published as soon as it is created.
+ *
+ * @author Arnaud Trouche - Artenum SARL
+ */
+final class CasesStreamLoader implements AutoCloseable {
+
+    /**
+     * Root element of the cases file.
+     */
+    static final String CASES_ELEMENT = "CASES";
+
+    /**
+     * Element of a single case.
+     */
+    static final String CASE_ELEMENT = "CASE";
+
+    /**
+     * Element of an output of a case.
+     */
+    static final String OUTPUT_ELEMENT = "OUTPUT";
+
+    /**
+     * Cases loaded from a file.
+     *
+     * @param cases
+     *         the loaded cases
+     * @param partial
+     *         {@code true} if loading has been cancelled before the end of the file, only the first cases being loaded
+     */
+    record LoadedCases(CaseList cases, boolean partial) {
+    }
+
+    private final Project project;
+
+    private final int batchSize;
+
+    private final DocumentBuilderFactory documentBuilderFactory;
+
+    private final DocumentBuilder documentBuilder;
+
+    /**
+     * Already decoded outputs of the cases, or {@code null} if the outputs must be decoded from the file.
+     */
+    private final ResultsCache cache;
+
+    /**
+     * Pool decoding the outputs, or {@code null} if they are decoded in the loading thread.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * @param theProject
+     *         the project owning the cases
+     * @param theBatchSize
+     *         the number of cases to publish at once
+     * @param theCache
+     *         the decoded outputs of the cases, or {@code null} to decode them from the file
+     * @param parallelism
+     *         the number of threads decoding the outputs
+     * @throws ParserConfigurationException
+     *         if unable to create the builder of the case elements
+     */
+    CasesStreamLoader(final Project theProject, final int theBatchSize, final ResultsCache theCache,
+            final int parallelism) throws ParserConfigurationException {
+        this.project = theProject;
+        this.batchSize = Math.max(1, theBatchSize);
+        this.cache = theCache;
+        this.pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+
+        this.documentBuilderFactory = DocumentBuilderFactory.newInstance();
+        this.documentBuilderFactory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        this.documentBuilderFactory.setExpandEntityReferences(false);
+        this.documentBuilder = this.documentBuilderFactory.newDocumentBuilder();
+    }
+
+    /**
+     * Loads all the cases of the given file.
+     *
+     * @param casesFile
+     *         the {@code cases.xml} file
+     * @param batchConsumer
+     *         called with the index of the first case of the batch and the batch of parsed cases
+     * @param progress
+     *         notified after each batch with the fraction of the file already read
+     * @param cancelled
+     *         checked while reading: when it returns {@code true}, loading stops and the cases already read are
+     *         returned
+     * @return the loaded cases, partial if loading stopped before the end of the cases
+     * @throws IOException
+     *         if unable to read the file
+     * @throws XMLStreamException
+     *         if the file is not a valid XML file
+     */
+    LoadedCases load(final File casesFile, final BiConsumer<Integer, List<Case>> batchConsumer,
+            final DoubleConsumer progress, final BooleanSupplier cancelled) throws IOException, XMLStreamException {
+        final CaseList cases = new CaseList();
+        List<Element> batch = new ArrayList<>(this.batchSize);
+        boolean partial = false;
+
+        try (final FileChannel channel = FileChannel.open(casesFile.toPath(), StandardOpenOption.READ);
+                final InputStream is = new BufferedInputStream(Channels.newInputStream(channel))) {
+            final double fileSize = Math.max(1L, channel.size());
+            final XMLStreamReader reader = CasesStreamLoader.createInputFactory().createXMLStreamReader(is);
+            try {
+                reader.nextTag();
+                if (!CasesStreamLoader.CASES_ELEMENT.equals(reader.getLocalName())) {
+                    throw new IllegalArgumentException(
+                            "wrong XML element " + reader.getLocalName() + " in file " + casesFile);
+                }
+
+                while (reader.hasNext()) {
+                    if (cancelled.getAsBoolean()) {
+                        partial = true;
+                        break;
+                    }
+
+                    final int event = reader.next();
+                    if ((event == XMLStreamConstants.END_ELEMENT) && CasesStreamLoader.CASES_ELEMENT.equals(
+                            reader.getLocalName())) {
+                        // All the cases are read: a later cancellation does not make them partial
+                        break;
+                    }
+                    if ((event == XMLStreamConstants.START_ELEMENT) && CasesStreamLoader.CASE_ELEMENT.equals(
+                            reader.getLocalName())) {
+                        batch.add(this.readElement(reader));
+
+                        if (batch.size() >= this.batchSize) {
+                            this.publish(batch, cases, batchConsumer);
+                            batch = new ArrayList<>(this.batchSize);
+                            progress.accept(channel.position() / fileSize);
+                        }
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+
+        this.publish(batch, cases, batchConsumer);
+        progress.accept(1d);
+        return new LoadedCases(cases, partial);
+    }
+
+    /**
+     * Loads all the cases of the given file by parsing the whole document at once. Slower and more memory-consuming
+     * than {@link #load(File, BiConsumer, DoubleConsumer, BooleanSupplier)}, should only be used as a fallback.
+     *
+     * @param casesFile
+     *         the {@code cases.xml} file
+     * @param batchConsumer
+     *         called with the index of the first case of the batch and the batch of parsed cases
+     * @param cancelled
+     *         checked between the batches: when it returns {@code true}, loading stops and the cases already
+     *         published are returned
+     * @return the loaded cases, partial if loading stopped before the end of the cases
+     * @throws IOException
+     *         if unable to read the file
+     * @throws SAXException
+     *         if the file is not a valid XML file
+     * @throws ParserConfigurationException
+     *         if unable to create the XML parser
+     */
+    LoadedCases loadDocument(final File casesFile, final BiConsumer<Integer, List<Case>> batchConsumer,
+            final BooleanSupplier cancelled) throws IOException, SAXException, ParserConfigurationException {
+        final CaseList cases = new CaseList();
+
+        final Document d = this.documentBuilderFactory.newDocumentBuilder().parse(casesFile);
+        final Element e = d.getDocumentElement();
+        if (!e.getTagName().equals(CasesStreamLoader.CASES_ELEMENT)) {
+            throw new IllegalArgumentException("wrong XML element " + e.getTagName() + " in file " + casesFile);
+        }
+
+        final NodeList fileCases = e.getElementsByTagName(CasesStreamLoader.CASE_ELEMENT);
+        List<Element> batch = new ArrayList<>(this.batchSize);
+        for (int caseIndex = 0; caseIndex < fileCases.getLength(); caseIndex++) {
+            batch.add((Element) fileCases.item(caseIndex));
+            if (batch.size() >= this.batchSize) {
+                this.publish(batch, cases, batchConsumer);
+                batch = new ArrayList<>(this.batchSize);
+                if ((caseIndex + 1 < fileCases.getLength()) && cancelled.getAsBoolean()) {
+                    return new LoadedCases(cases, true);
+                }
+            }
+        }
+        this.publish(batch, cases, batchConsumer);
+
+        return new LoadedCases(cases, false);
+    }
+
+    @Override
+    public void close() {
+        if (this.pool != null) {
+            this.pool.shutdown();
+        }
+    }
+
+    /**
+     * Creates the cases of the given batch, publishes them and adds them to the loaded cases.
+     */
+    private void publish(final List<Element> batch, final CaseList cases,
+            final BiConsumer<Integer, List<Case>> batchConsumer) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        final int firstIndex = cases.size();
+        final List<Map<String, Object>> outputs;
+        if ((this.cache != null) && ((firstIndex + batch.size()) <= this.cache.size())) {
+            outputs = IntStream.range(firstIndex, firstIndex + batch.size()).mapToObj(this.cache::getOutputs)
+                    .toList();
+        } else {
+            // The DOM is not thread-safe: the texts are extracted before decoding them in parallel
+            final List<Map<String, String>> texts = batch.stream().map(CasesStreamLoader::extractOutputs).toList();
+            if (this.pool == null) {
+                outputs = texts.stream().map(CasesStreamLoader::decodeOutputs).toList();
+            } else {
+                outputs = this.pool.submit(
+                        () -> texts.parallelStream().map(CasesStreamLoader::decodeOutputs).toList()).join();
+            }
+        }
+
+        final List<Case> batchCases = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            batchCases.add(CasesStreamLoader.createCase(batch.get(i), this.project, outputs.get(i)));
+        }
+
+        batchConsumer.accept(firstIndex, batchCases);
+        cases.addAll(batchCases);
+    }
+
+    /**
+     * @param caseElement
+     *         the {@code CASE} element
+     * @return the undecoded text of each output of the case, by name
+     */
+    private static Map<String, String> extractOutputs(final Element caseElement) {
+        final NodeList outputNodes = caseElement.getElementsByTagName(CasesStreamLoader.OUTPUT_ELEMENT);
+        final Map<String, String> texts = HashMap.newHashMap(outputNodes.getLength());
+        for (int index = 0; index < outputNodes.getLength(); index++) {
+            final Element n = (Element) outputNodes.item(index);
+            texts.put(n.getAttribute("name"), n.getTextContent());
+        }
+        return texts;
+    }
+
+    /**
+     * @param texts
+     *         the undecoded text of each output, by name
+     * @return the decoded outputs, by name
+     */
+    private static Map<String, Object> decodeOutputs(final Map<String, String> texts) {
+        final Map<String, Object> map = HashMap.newHashMap(texts.size());
+        for (final Map.Entry<String, String> entry : texts.entrySet()) {
+            map.put(entry.getKey(), org.funz.util.Data.asObject(Format.fromHTML(entry.getValue())));
+        }
+        return map;
+    }
+
+    /**
+     * Creates a {@link Case} from its XML element, with already decoded output values.
+     *
+     * @param caseElement
+     *         the {@code CASE} element
+     * @param project
+     *         the project owning the case
+     * @param outputs
+     *         the decoded outputs of the case
+     * @return the created case
+     */
+    private static Case createCase(final Element caseElement, final Project project,
+            final Map<String, Object> outputs) {
+        final Case newCase = new Case(caseElement, project);
+
+        // Put the result into the correct fields
+        newCase.setOutputValues(outputs);
+        newCase.setResult(outputs);
+
+        return newCase;
+    }
+
+    /**
+     * Reads the element on which the reader is positioned (with all its children) into a standalone DOM. The reader is
+     * left on the matching end element.
+     */
+    private Element readElement(final XMLStreamReader reader) throws XMLStreamException {
+        final Document document = this.documentBuilder.newDocument();
+        Node current = document;
+
+        int depth = 0;
+        do {
+            switch (reader.getEventType()) {
+            case XMLStreamConstants.START_ELEMENT -> {
+                final Element element = document.createElement(reader.getLocalName());
+                for (int i = 0; i < reader.getAttributeCount(); i++) {
+                    element.setAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+                }
+                current.appendChild(element);
+                current = element;
+                depth++;
+            }
+            case XMLStreamConstants.END_ELEMENT -> {
+                current = current.getParentNode();
+                depth--;
+            }
+            case XMLStreamConstants.CHARACTERS, XMLStreamConstants.SPACE ->
+                    current.appendChild(document.createTextNode(reader.getText()));
+            case XMLStreamConstants.CDATA -> current.appendChild(document.createCDATASection(reader.getText()));
+            default -> {
+                // Comments and processing instructions are ignored
+            }
+            }
+        } while ((depth > 0) && (reader.next() != XMLStreamConstants.END_DOCUMENT));
+
+        return document.getDocumentElement();
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        return factory;
+    }
+}
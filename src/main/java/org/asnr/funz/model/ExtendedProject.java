@@ -22,19 +22,20 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleConsumer;
 
-import javax.xml.XMLConstants;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
 
 import org.apache.commons.io.FileUtils;
 import org.asnr.funz.data.i18n.ResultsDictionary;
 import org.asnr.funz.data.model.ResultModel;
 import org.asnr.funz.data.model.impl.DefaultResultModel;
+import org.asnr.funz.model.listeners.CasesLoadedListener;
 import org.asnr.funz.model.listeners.EntryDataListener;
 import org.asnr.funz.model.listeners.FunzProjectStateListener;
 import org.asnr.funz.model.listeners.ProjectSavedListener;
@@ -46,13 +47,8 @@ import org.funz.parameter.CaseList;
 import org.funz.parameter.VarGroup;
 import org.funz.parameter.Variable;
 import org.funz.parameter.VariableMethods.Value;
-import org.funz.util.Format;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
 
 import javafx.application.Platform;
 
@@ -65,6 +61,16 @@ public class ExtendedProject extends Project implements Case.Observer, Design.Ob
 
     private static final Logger log = LoggerFactory.getLogger(ExtendedProject.class);
 
+    /**
+     * Number of cases published at once to the {@link ResultModel} while loading the results.
+     */
+    private static final int CASES_BATCH_SIZE = 500;
+
+    /**
+     * System property defining the default number of threads decoding the case outputs while loading the results.
+     */
+    private static final String LOADING_PARALLELISM_PROPERTY = "org.asnr.funz.dataview.loading.parallelism";
+
     /**
      * Represents if the entry data of the project is correctly set.
      */
@@ -100,7 +106,29 @@ public class ExtendedProject extends Project implements Case.Observer, Design.Ob
      */
     private final List<Case.Observer> caseListeners = new CopyOnWriteArrayList<>();
 
-    private final ResultModel resultModel;
+    /**
+     * Listeners on the progressive loading of cases.
+     */
+    private final List<CasesLoadedListener> casesLoadedListeners = new CopyOnWriteArrayList<>();
+
+    private final DefaultResultModel resultModel;
+
+    /**
+     * Executor notifying the status and entry data listeners: the JavaFX application thread, unless headless.
+     */
+    private volatile Executor listenersExecutor = Platform::runLater;
+
+    /**
+     * Whether the loading of the cases has been cancelled: the project then only holds part of its cases, and is not
+     * saved so as not to lose the others.
+     */
+    private volatile boolean partialCases;
+
+    /**
+     * Number of threads decoding the case outputs while loading the results.
+     */
+    private int loadingParallelism = Integer.getInteger(ExtendedProject.LOADING_PARALLELISM_PROPERTY,
+            Runtime.getRuntime().availableProcessors());
 
     /**
      * @param file
@@ -162,8 +190,66 @@ public class ExtendedProject extends Project implements Case.Observer, Design.Ob
         return this.resultModel;
     }
 
+    /**
+     * @return the number of threads decoding the case outputs while loading the results
+     */
+    public int getLoadingParallelism() {
+        return this.loadingParallelism;
+    }
+
+    /**
+     * @param parallelism
+     *         the number of threads decoding the case outputs while loading the results, {@code 1} to decode them in
+     *         the loading thread
+     */
+    public void setLoadingParallelism(final int parallelism) {
+        this.loadingParallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * @param file
+     *         a file of the results directory
+     * @return {@code true} if it is written by this application (results cache) rather than by Funz, and thus not to be
+     *         shown among the results files
+     */
+    public static boolean isInternalResultsFile(final File file) {
+        return ResultsCache.isCacheFile(file.getName());
+    }
+
+    /**
+     * Releases the threads of the project, once closed.
+     */
+    public void dispose() {
+        this.resultModel.dispose();
+    }
+
+    /**
+     * @param executor
+     *         the executor notifying the status and entry data listeners, {@code Runnable::run} to notify them in the
+     *         calling thread when the JavaFX toolkit is not started (headless export)
+     */
+    public void setListenersExecutor(final Executor executor) {
+        this.listenersExecutor = executor;
+    }
+
+    /**
+     * @return {@code true} if the loading of the cases has been cancelled, the project only holding part of its cases:
+     *         it is then read-only
+     */
+    public boolean hasPartialCases() {
+        return this.partialCases;
+    }
+
+    /**
+     * Not saved when only part of the cases are loaded, see {@link #hasPartialCases()}.
+     */
     @Override
     public void saveInSpool() {
+        if (this.partialCases) {
+            ExtendedProject.log.warn("Project '{}' not saved: the loading of its cases has been cancelled",
+                    this.getName());
+            return;
+        }
         try {
             super.saveInSpool();
             for (final ProjectSavedListener listeners : this.saveListeners) {
@@ -283,6 +369,26 @@ public class ExtendedProject extends Project implements Case.Observer, Design.Ob
         this.caseListeners.remove(listener);
     }
 
+    /**
+     * Adds a
+     *
+     * @param listener
+     *         {@link CasesLoadedListener}
+     */
+    public void addCasesLoadedListener(final CasesLoadedListener listener) {
+        this.casesLoadedListeners.add(listener);
+    }
+
+    /**
+     * Removes a
+     *
+     * @param listener
+     *         {@link CasesLoadedListener}
+     */
+    public void removeCasesLoadedListener(final CasesLoadedListener listener) {
+        this.casesLoadedListeners.remove(listener);
+    }
+
     @Override
     public void designUpdated(final int numCases) {
         for (final Design.Observer listener : this.designListeners) {
@@ -340,7 +446,7 @@ public class ExtendedProject extends Project implements Case.Observer, Design.Ob
 
         this.autoSelectOutputFunction();
 
-        Platform.runLater(() -> {
+        this.listenersExecutor.execute(() -> {
             for (final EntryDataListener listener : this.entryDataListeners) {
                 listener.entryDataModified(this);
             }
@@ -431,12 +537,31 @@ public class ExtendedProject extends Project implements Case.Observer, Design.Ob
 
     @Override
     public void loadCases() throws Exception {
+        this.loadCases(fraction -> {
+            // Progress is not followed
+        }, () -> false);
+    }
+
+    /**
+     * Loads the cases from the results, publishing them progressively to the {@link ResultModel}.
+     *
+     * @param progress
+     *         notified with the fraction of the cases file already loaded
+     * @param cancelled
+     *         when it returns {@code true}, loading stops and only the cases already read are kept, the project
+     *         becoming read-only (see {@link #hasPartialCases()})
+     * @throws Exception
+     *         if unable to load the cases
+     */
+    public void loadCases(final DoubleConsumer progress, final BooleanSupplier cancelled) throws Exception {
 
         // Re-written loadCases from Project to avoid issue on empty cases
         final File caseFile = new File(this.getResultsDir(), "cases.xml");
         if (caseFile.exists()) {
-            final CaseList cases = this.correctlyLoadResults(caseFile);
-            this.setCases(cases, this);
+            final CasesStreamLoader.LoadedCases loaded = this.loadResults(caseFile, progress, cancelled);
+            // Set before the cases so that they are never saved partially
+            this.partialCases = loaded.partial();
+            this.setCases(loaded.cases(), this);
             if (!this.getCases().isEmpty()) {
                 this.getVoidIntermediate().putAll(this.getCases().get(0).getIntermediateValues());
             }
@@ -468,47 +593,59 @@ public class ExtendedProject extends Project implements Case.Observer, Design.Ob
         }
     }
 
-    private CaseList correctlyLoadResults(final File casesFile)
-            throws SAXException, IOException, ParserConfigurationException {
-        final CaseList cases = new CaseList();
-
-        final DocumentBuilderFactory df = DocumentBuilderFactory.newInstance();
-        df.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
-        df.setExpandEntityReferences(false);
-        final Document d = df.newDocumentBuilder().parse(casesFile);
-        final Element e = d.getDocumentElement();
-        if (!e.getTagName().equals("CASES")) {
-            throw new IllegalArgumentException("wrong XML element " + e.getTagName() + " in file " + casesFile);
+    /**
+     * Loads the cases of the given file with {@link CasesStreamLoader}, publishing them to the {@link ResultModel} as
+     * they are parsed. The outputs are read from the {@link ResultsCache} when it is up to date, otherwise the cache is
+     * written once the cases are loaded, unless the file changed meanwhile (running calculations). Falls back to a
+     * whole DOM parsing if the file cannot be streamed.
+     */
+    private CasesStreamLoader.LoadedCases loadResults(final File casesFile, final DoubleConsumer progress,
+            final BooleanSupplier cancelled) throws Exception {
+        // Taken before reading, so that a cache is never written for outputs older than its key
+        final ResultsCache.Key key = ResultsCache.Key.of(casesFile);
+        final Optional<ResultsCache> cache = ResultsCache.read(casesFile);
+        try (final CasesStreamLoader loader = new CasesStreamLoader(this, ExtendedProject.CASES_BATCH_SIZE,
+                cache.orElse(null), this.loadingParallelism)) {
+            try {
+                final CasesStreamLoader.LoadedCases loaded = loader.load(casesFile, this::publishCases, progress,
+                        cancelled);
+                if (cache.isEmpty() && !loaded.partial()) {
+                    ExtendedProject.writeResultsCache(casesFile, key, loaded.cases());
+                }
+                return loaded;
+            } catch (final XMLStreamException e) {
+                ExtendedProject.log.warn("Unable to stream '{}', falling back to DOM loading: {}", casesFile,
+                        e.getMessage());
+                ExtendedProject.log.debug(e.getMessage(), e);
+                this.resultModel.resetCases();
+                return loader.loadDocument(casesFile, this::publishCases, cancelled);
+            }
         }
+    }
 
-        final NodeList fileCases = e.getElementsByTagName("CASE");
-        for (int caseIndex = 0; caseIndex < fileCases.getLength(); caseIndex++) {
-            final Element caseElement = (Element) fileCases.item(caseIndex);
-            final Case newCase = new Case(caseElement, this);
-
-            // Get the output results
-            final NodeList outputNodes = caseElement.getElementsByTagName("OUTPUT");
-            final Map<String, Object> map = new HashMap<>();
-            for (int index = 0; index < outputNodes.getLength(); index++) {
-                final Element n = (Element) outputNodes.item(index);
-                final Object o = org.funz.util.Data.asObject(Format.fromHTML(n.getTextContent()));
-                map.put(n.getAttribute("name"), o);
+    private static void writeResultsCache(final File casesFile, final ResultsCache.Key key, final CaseList cases) {
+        try {
+            if (!key.equals(ResultsCache.Key.of(casesFile))) {
+                ExtendedProject.log.debug("Results cache not written, '{}' changed while loading", casesFile);
+                return;
             }
-
-            // Put the result into the correct fields
-            newCase.setOutputValues(map);
-            newCase.setResult(map);
-
-            cases.add(newCase);
+            ResultsCache.write(casesFile, key, cases.stream().map(Case::getResult).toList());
+        } catch (final IOException e) {
+            ExtendedProject.log.debug("Unable to write results cache for '{}': {}", casesFile, e.getMessage());
         }
+    }
 
-        return cases;
+    private void publishCases(final int firstIndex, final List<Case> loadedCases) {
+        this.resultModel.publishCases(firstIndex, loadedCases);
+        for (final CasesLoadedListener listener : this.casesLoadedListeners) {
+            listener.casesLoaded(this, firstIndex + loadedCases.size());
+        }
     }
 
     private void changeStatus(final ExtendedProjectState newStatus) {
         if (!this.currentStatus.equals(newStatus)) {
             this.currentStatus = newStatus;
-            Platform.runLater(() -> {
+            this.listenersExecutor.execute(() -> {
                 for (final FunzProjectStateListener listener : this.statusListeners) {
                     listener.statusChanged(this, newStatus);
                 }
@@ -0,0 +1,453 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.funz.util.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Binary columnar cache of the decoded outputs of the cases, stored next to the {@code cases.xml} file.<br>
+ * Each output is stored as a typed column: {@code double} values for scalars, offsets and a values buffer for
+ * {@code double[]} arrays, and a dictionary for strings. Other values are stored through {@link Data#asString(Object)}.
+ * The cache is keyed on the size and last modification time of the {@code cases.xml} file and its columns are read
+ * through views of a memory-mapped buffer.<br>
+ * A mapped file cannot be replaced on every platform, so each write creates a new generation of the cache file
+ * ({@code .dataview-cache.<generation>}), the previous ones being deleted when possible.
+ *
+ * @author Arnaud Trouche - Artenum SARL
+ */
+final class ResultsCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ResultsCache.class);
+
+    /**
+     * Prefix of the name of the cache files and of their temporary files.
+     */
+    private static final String CACHE_PREFIX = ".dataview-cache";
+
+    /**
+     * Prefix of the name of the cache files, in the results directory, followed by their generation.
+     */
+    static final String CACHE_FILE = ResultsCache.CACHE_PREFIX + ".";
+
+    private static final int MAGIC = 0x46445643;
+
+    private static final int VERSION = 1;
+
+    private static final byte ABSENT = 0;
+
+    private static final byte PRESENT = 1;
+
+    private static final byte NULL = 2;
+
+    /**
+     * The type of a column.
+     */
+    private enum ColumnType {
+        SCALAR, ARRAY, STRING, RAW
+    }
+
+    /**
+     * The decoded columns, by output name.
+     */
+    private final Map<String, Column> columns;
+
+    private final int size;
+
+    private ResultsCache(final int theSize, final Map<String, Column> theColumns) {
+        this.size = theSize;
+        this.columns = theColumns;
+    }
+
+    /**
+     * @return the number of cases in the cache
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * @param caseIndex
+     *         the index of the case
+     * @return the outputs of the given case
+     */
+    Map<String, Object> getOutputs(final int caseIndex) {
+        final Map<String, Object> outputs = HashMap.newHashMap(this.columns.size());
+        for (final Map.Entry<String, Column> entry : this.columns.entrySet()) {
+            final Column column = entry.getValue();
+            final byte presence = column.presence.get(caseIndex);
+            if (presence == ResultsCache.PRESENT) {
+                outputs.put(entry.getKey(), column.get(caseIndex));
+            } else if (presence == ResultsCache.NULL) {
+                outputs.put(entry.getKey(), null);
+            }
+        }
+        return outputs;
+    }
+
+    /**
+     * @param casesFile
+     *         the {@code cases.xml} file
+     * @return the cache files associated to the given cases file, the latest generation first
+     */
+    static List<File> getCacheFiles(final File casesFile) {
+        final File[] files = casesFile.getParentFile().listFiles(
+                (dir, name) -> ResultsCache.getGeneration(name) >= 0);
+        if (files == null) {
+            return List.of();
+        }
+        final List<File> cacheFiles = new ArrayList<>(Arrays.asList(files));
+        cacheFiles.sort(Comparator.comparingLong((final File f) -> ResultsCache.getGeneration(f.getName())).reversed());
+        return cacheFiles;
+    }
+
+    /**
+     * @param fileName
+     *         the name of a file of the results directory
+     * @return {@code true} if it is a cache file, or a temporary file being written
+     */
+    static boolean isCacheFile(final String fileName) {
+        return fileName.startsWith(ResultsCache.CACHE_PREFIX);
+    }
+
+    /**
+     * @return the generation of the cache file of the given name, {@code -1} if not a cache file
+     */
+    private static long getGeneration(final String fileName) {
+        if (!fileName.startsWith(ResultsCache.CACHE_FILE)) {
+            return -1L;
+        }
+        final String generation = fileName.substring(ResultsCache.CACHE_FILE.length());
+        if (generation.isEmpty() || !generation.chars().allMatch(c -> c >= '0' && c <= '9')) {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(generation);
+        } catch (final NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    /**
+     * Reads the latest cache of the given cases file. The cache keeps the file mapped, its columns being views of the
+     * mapping.
+     *
+     * @param casesFile
+     *         the {@code cases.xml} file
+     * @return the cache, or an empty {@link Optional} if there is no cache or if it is outdated
+     */
+    static Optional<ResultsCache> read(final File casesFile) {
+        final List<File> cacheFiles = ResultsCache.getCacheFiles(casesFile);
+        if (cacheFiles.isEmpty()) {
+            return Optional.empty();
+        }
+
+        final File cacheFile = cacheFiles.getFirst();
+        try (final FileChannel channel = FileChannel.open(cacheFile.toPath(), StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if ((buffer.getInt() != ResultsCache.MAGIC) || (buffer.getInt() != ResultsCache.VERSION)) {
+                return Optional.empty();
+            }
+            final Key key = Key.of(casesFile);
+            if ((buffer.getLong() != key.length()) || (buffer.getLong() != key.lastModified())) {
+                ResultsCache.log.debug("Cache '{}' is outdated", cacheFile);
+                return Optional.empty();
+            }
+
+            final int size = buffer.getInt();
+            final int nbColumns = buffer.getInt();
+            final Map<String, Column> columns = LinkedHashMap.newLinkedHashMap(nbColumns);
+            for (int i = 0; i < nbColumns; i++) {
+                final String name = ResultsCache.readString(buffer);
+                columns.put(name, Column.read(buffer, size));
+            }
+            return Optional.of(new ResultsCache(size, columns));
+        } catch (final IOException | RuntimeException e) {
+            ResultsCache.log.warn("Unable to read results cache '{}': {}", cacheFile, e.getMessage());
+            ResultsCache.log.debug(e.getMessage(), e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes the cache of the given cases file, as a new generation: the previous ones may still be mapped.
+     *
+     * @param casesFile
+     *         the {@code cases.xml} file
+     * @param key
+     *         the key of the cases file when its outputs were read, see {@link Key#of(File)}
+     * @param outputs
+     *         the outputs of each case, in the order of the cases file
+     * @throws IOException
+     *         if unable to write the cache
+     */
+    static void write(final File casesFile, final Key key, final List<Map<String, Object>> outputs)
+            throws IOException {
+        final List<File> previousFiles = ResultsCache.getCacheFiles(casesFile);
+        final long generation = previousFiles.isEmpty() ? 0L
+                : ResultsCache.getGeneration(previousFiles.getFirst().getName()) + 1L;
+        final File cacheFile = new File(casesFile.getParentFile(), ResultsCache.CACHE_FILE + generation);
+        final Path tmpFile = Files.createTempFile(cacheFile.getParentFile().toPath(), ResultsCache.CACHE_PREFIX,
+                ".tmp");
+
+        try {
+            // Gather the output names and the type of their non-null values
+            final Map<String, ColumnType> types = new LinkedHashMap<>();
+            for (final Map<String, Object> caseOutputs : outputs) {
+                for (final Map.Entry<String, Object> entry : caseOutputs.entrySet()) {
+                    if (entry.getValue() == null) {
+                        types.putIfAbsent(entry.getKey(), null);
+                    } else {
+                        final ColumnType type = ResultsCache.typeOf(entry.getValue());
+                        types.merge(entry.getKey(), type, (t1, t2) -> t1 == t2 ? t1 : ColumnType.RAW);
+                    }
+                }
+            }
+            types.replaceAll((name, type) -> type == null ? ColumnType.SCALAR : type);
+
+            try (final DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+                out.writeInt(ResultsCache.MAGIC);
+                out.writeInt(ResultsCache.VERSION);
+                out.writeLong(key.length());
+                out.writeLong(key.lastModified());
+                out.writeInt(outputs.size());
+                out.writeInt(types.size());
+                for (final Map.Entry<String, ColumnType> entry : types.entrySet()) {
+                    ResultsCache.writeString(out, entry.getKey());
+                    Column.write(out, entry.getKey(), entry.getValue(), outputs);
+                }
+            }
+
+            Files.move(tmpFile, cacheFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+
+        for (final File previousFile : previousFiles) {
+            try {
+                Files.deleteIfExists(previousFile.toPath());
+            } catch (final IOException e) {
+                // Still mapped by a cache in use (on Windows): deleted by a next write
+                ResultsCache.log.debug("Unable to delete previous results cache '{}': {}", previousFile,
+                        e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return the type of column able to store the given non-null value
+     */
+    private static ColumnType typeOf(final Object value) {
+        if (value instanceof Double) {
+            return ColumnType.SCALAR;
+        } else if (value instanceof double[]) {
+            return ColumnType.ARRAY;
+        } else if (value instanceof String) {
+            return ColumnType.STRING;
+        }
+        return ColumnType.RAW;
+    }
+
+    private static String readString(final ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Version of a cases file the cache is valid for.
+     *
+     * @param length
+     *         the length of the file
+     * @param lastModified
+     *         the last modification time of the file, in milliseconds
+     */
+    record Key(long length, long lastModified) {
+
+        /**
+         * @param casesFile
+         *         the {@code cases.xml} file
+         * @return its current key, to be taken before reading the file
+         * @throws IOException
+         *         if unable to read the file attributes
+         */
+        static Key of(final File casesFile) throws IOException {
+            return new Key(casesFile.length(), Files.getLastModifiedTime(casesFile.toPath()).toMillis());
+        }
+    }
+
+    /**
+     * A column of the cache, made of read-only views of the mapped file, only the strings being decoded.
+     */
+    private static final class Column {
+
+        private final ColumnType type;
+
+        private final ByteBuffer presence;
+
+        /**
+         * Scalar values, or values of all the arrays.
+         */
+        private DoubleBuffer values;
+
+        /**
+         * Start of each array in {@link #values}, with a last offset for the end of the last array.
+         */
+        private IntBuffer offsets;
+
+        private String[] dictionary;
+
+        private IntBuffer codes;
+
+        private Column(final ColumnType theType, final ByteBuffer thePresence) {
+            this.type = theType;
+            this.presence = thePresence;
+        }
+
+        private Object get(final int caseIndex) {
+            return switch (this.type) {
+            case SCALAR -> this.values.get(caseIndex);
+            case ARRAY -> {
+                final int offset = this.offsets.get(caseIndex);
+                final double[] array = new double[this.offsets.get(caseIndex + 1) - offset];
+                this.values.get(offset, array);
+                yield array;
+            }
+            case STRING -> this.dictionary[this.codes.get(caseIndex)];
+            case RAW -> Data.asObject(this.dictionary[this.codes.get(caseIndex)]);
+            };
+        }
+
+        private static Column read(final ByteBuffer buffer, final int size) {
+            final ColumnType type = ColumnType.values()[buffer.get()];
+            final Column column = new Column(type, Column.view(buffer, size));
+            switch (type) {
+            case SCALAR -> column.values = Column.view(buffer, size * Double.BYTES).asDoubleBuffer();
+            case ARRAY -> {
+                column.offsets = Column.view(buffer, (size + 1) * Integer.BYTES).asIntBuffer();
+                column.values = Column.view(buffer, column.offsets.get(size) * Double.BYTES).asDoubleBuffer();
+            }
+            case STRING, RAW -> {
+                column.dictionary = new String[buffer.getInt()];
+                for (int i = 0; i < column.dictionary.length; i++) {
+                    column.dictionary[i] = ResultsCache.readString(buffer);
+                }
+                column.codes = Column.view(buffer, size * Integer.BYTES).asIntBuffer();
+            }
+            }
+            return column;
+        }
+
+        /**
+         * @return a read-only view of the next given number of bytes of the buffer, which are skipped
+         */
+        private static ByteBuffer view(final ByteBuffer buffer, final int length) {
+            final ByteBuffer view = buffer.slice(buffer.position(), length).asReadOnlyBuffer();
+            buffer.position(buffer.position() + length);
+            return view;
+        }
+
+        private static void write(final DataOutputStream out, final String name, final ColumnType type,
+                final List<Map<String, Object>> outputs) throws IOException {
+            out.writeByte(type.ordinal());
+            for (final Map<String, Object> caseOutputs : outputs) {
+                if (!caseOutputs.containsKey(name)) {
+                    out.writeByte(ResultsCache.ABSENT);
+                } else if (caseOutputs.get(name) == null) {
+                    out.writeByte(ResultsCache.NULL);
+                } else {
+                    out.writeByte(ResultsCache.PRESENT);
+                }
+            }
+
+            switch (type) {
+            case SCALAR -> {
+                for (final Map<String, Object> caseOutputs : outputs) {
+                    final Object value = caseOutputs.get(name);
+                    out.writeDouble(value instanceof final Double d ? d : Double.NaN);
+                }
+            }
+            case ARRAY -> {
+                int offset = 0;
+                out.writeInt(offset);
+                for (final Map<String, Object> caseOutputs : outputs) {
+                    if (caseOutputs.get(name) instanceof final double[] array) {
+                        offset += array.length;
+                    }
+                    out.writeInt(offset);
+                }
+                for (final Map<String, Object> caseOutputs : outputs) {
+                    if (caseOutputs.get(name) instanceof final double[] array) {
+                        for (final double d : array) {
+                            out.writeDouble(d);
+                        }
+                    }
+                }
+            }
+            case STRING, RAW -> {
+                final Map<String, Integer> dictionary = new LinkedHashMap<>();
+                final List<Integer> codes = new ArrayList<>(outputs.size());
+                for (final Map<String, Object> caseOutputs : outputs) {
+                    final Object value = caseOutputs.get(name);
+                    if (value == null) {
+                        codes.add(-1);
+                    } else {
+                        final String asString = type == ColumnType.STRING ? (String) value : Data.asString(value);
+                        codes.add(dictionary.computeIfAbsent(asString, s -> dictionary.size()));
+                    }
+                }
+                out.writeInt(dictionary.size());
+                for (final String entry : dictionary.keySet()) {
+                    ResultsCache.writeString(out, entry);
+                }
+                for (final int code : codes) {
+                    out.writeInt(code);
+                }
+            }
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.model.listeners;
+
+import org.asnr.funz.model.ExtendedProject;
+
+/**
+ * Listener interface to be notified of the progressive loading of the project cases.
+ *
+ * @author Arnaud TROUCHE - Artenum SARL
+ */
+@FunctionalInterface
+public interface CasesLoadedListener {
+
+    /**
+     * A new batch of cases has been loaded and published in the result model of the given project.
+     *
+     * @param modifiedProject
+     *         the modified {@link ExtendedProject}
+     * @param loadedCases
+     *         the number of cases loaded so far
+     */
+    void casesLoaded(ExtendedProject modifiedProject, int loadedCases);
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.controller;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link FileContentSearch}.
+ *
+ * @author Arnaud Trouche - Artenum SARL
+ **/
+public class FileContentSearchTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Test the lines containing the text are found in all the text files, once per line.
+     *
+     * @throws Exception
+     *         if error
+     */
+    @Test
+    public void search() throws Exception {
+        final File root = this.folder.newFolder("results");
+        final File caseDir = new File(root, "case_1");
+        Assert.assertTrue(caseDir.mkdir());
+        final File log = new File(caseDir, "run.log");
+        Files.writeString(log.toPath(), "start\nERROR: no convergence, ERROR again\nend\n");
+        final File output = new File(root, "output.txt");
+        Files.writeString(output.toPath(), "ERROR");
+        Files.write(new File(root, "data.bin").toPath(), new byte[] { 'E', 'R', 'R', 'O', 'R', 0 });
+
+        try (final FileContentSearch search = new FileContentSearch(2)) {
+            final List<FileContentSearch.Hit> consumed = new ArrayList<>();
+            final List<FileContentSearch.Hit> hits = search.search(root, "ERROR", 10, consumed::addAll, () -> false);
+
+            Assert.assertEquals(List.of(new FileContentSearch.Hit(log, 2, "ERROR: no convergence, ERROR again"),
+                    new FileContentSearch.Hit(output, 1, "ERROR")), hits);
+            Assert.assertEquals(2, consumed.size());
+
+            Assert.assertEquals(1, search.search(root, "ERROR", 1, h -> {
+                // Not checked
+            }, () -> false).size());
+            Assert.assertEquals(List.of(), search.search(root, "ERROR", 10, h -> {
+                // Not checked
+            }, () -> true));
+        }
+    }
+
+    /**
+     * Test the text and the line numbers across several memory-mapped windows.
+     *
+     * @throws Exception
+     *         if error
+     */
+    @Test
+    public void windows() throws Exception {
+        final File file = this.folder.newFile("output.txt");
+        Files.writeString(file.toPath(), "a\nbc value\nvalue\nxxvalu\neyy\nvalue");
+
+        final byte[] pattern = "value".getBytes(StandardCharsets.UTF_8);
+        for (long windowSize = 6; windowSize <= 40; windowSize++) {
+            final List<Integer> lines = FileContentSearch.searchFile(file, pattern, 10, windowSize).stream()
+                    .map(FileContentSearch.Hit::line).toList();
+            Assert.assertEquals("Window of " + windowSize, List.of(2, 3, 6), lines);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.controller;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link FileNameIndex}.
+ *
+ * @author Arnaud Trouche - Artenum SARL
+ **/
+public class FileNameIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Test the files are found by any part of their name, the directories being visited while indexed.
+     *
+     * @throws Exception
+     *         if error
+     */
+    @Test
+    public void search() throws Exception {
+        final File root = this.folder.newFolder("results");
+        final File caseDir = new File(root, "case_1");
+        Assert.assertTrue(caseDir.mkdir());
+        final File output = new File(caseDir, "output.txt");
+        final File log = new File(caseDir, "run.log");
+        Assert.assertTrue(output.createNewFile());
+        Assert.assertTrue(log.createNewFile());
+
+        final FileNameIndex index = new FileNameIndex();
+        final List<File> directories = new ArrayList<>();
+        index.addTree(root, directories::add);
+
+        Assert.assertEquals(List.of(root, caseDir), directories);
+        Assert.assertEquals(4, index.size());
+        Assert.assertEquals(List.of(output), index.search("tput"));
+        Assert.assertEquals(List.of(output), index.search("t.t"));
+        Assert.assertEquals(List.of(log), index.search("lo"));
+        Assert.assertEquals(List.of(), index.search("outputs"));
+        Assert.assertEquals(List.of(), index.search("Output"));
+    }
+
+    /**
+     * Test the files added and removed after the first indexation.
+     *
+     * @throws Exception
+     *         if error
+     */
+    @Test
+    public void incrementalChanges() throws Exception {
+        final File root = this.folder.newFolder("results");
+        final File caseDir = new File(root, "case_1");
+        final File output = new File(caseDir, "output.txt");
+        final File other = new File(root, "case_10");
+
+        final FileNameIndex index = new FileNameIndex();
+        index.add(root);
+        index.add(caseDir);
+        index.add(output);
+        index.add(other);
+        index.add(output);
+        Assert.assertEquals(4, index.size());
+        Assert.assertEquals(List.of(caseDir, other), index.search("case_1"));
+
+        // The content of the directory is removed with it, not the siblings sharing its prefix
+        index.remove(caseDir);
+        Assert.assertEquals(2, index.size());
+        Assert.assertEquals(List.of(other), index.search("case_1"));
+        Assert.assertEquals(List.of(), index.search("output"));
+
+        index.add(output);
+        Assert.assertEquals(List.of(output), index.search("output"));
+    }
+}
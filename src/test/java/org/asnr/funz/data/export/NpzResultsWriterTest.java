@@ -0,0 +1,139 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.export;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link NpzResultsWriter}.
+ *
+ * @author Arnaud Trouche - Artenum SARL
+ **/
+public class NpzResultsWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Test each column is written as a typed array, array outputs being split into values and offsets.
+     *
+     * @throws Exception
+     *         if error
+     */
+    @Test
+    public void typedColumns() throws Exception {
+        final File file = this.folder.newFile("export.npz");
+
+        try (final NpzResultsWriter writer = new NpzResultsWriter(file)) {
+            writer.writeHeader(List.of("x"), List.of("curve", "state"));
+            writer.writeRow(List.of("1.5"), Arrays.asList(new double[] { 1d, 2d }, "done"));
+            writer.writeRow(Collections.singletonList(null), Arrays.asList(null, "?"));
+        }
+
+        try (final ZipFile zip = new ZipFile(file)) {
+            Assert.assertEquals(List.of("x.npy", "curve.values.npy", "curve.offsets.npy", "state.npy"),
+                    zip.stream().map(ZipEntry::getName).toList());
+
+            final ByteBuffer x = NpzResultsWriterTest.readArray(zip, "x.npy", "<f8");
+            Assert.assertEquals(1.5d, x.getDouble(), 0d);
+            Assert.assertTrue(Double.isNaN(x.getDouble()));
+
+            final ByteBuffer offsets = NpzResultsWriterTest.readArray(zip, "curve.offsets.npy", "<i8");
+            Assert.assertEquals(0L, offsets.getLong());
+            Assert.assertEquals(2L, offsets.getLong());
+            Assert.assertEquals(2L, offsets.getLong());
+
+            NpzResultsWriterTest.readArray(zip, "state.npy", "<U4");
+        }
+    }
+
+    /**
+     * Test the missing result of a pending case keeps numeric and array columns typed.
+     *
+     * @throws Exception
+     *         if error
+     */
+    @Test
+    public void missingResults() throws Exception {
+        final File file = this.folder.newFile("missing.npz");
+
+        try (final NpzResultsWriter writer = new NpzResultsWriter(file)) {
+            writer.writeHeader(List.of(), List.of("y", "curve"));
+            writer.writeRow(List.of(), Arrays.asList(2.5d, new double[] { 1d }));
+            writer.writeRow(List.of(), Arrays.asList("?", "?"));
+        }
+
+        try (final ZipFile zip = new ZipFile(file)) {
+            final ByteBuffer y = NpzResultsWriterTest.readArray(zip, "y.npy", "<f8");
+            Assert.assertEquals(2.5d, y.getDouble(), 0d);
+            Assert.assertTrue(Double.isNaN(y.getDouble()));
+
+            final ByteBuffer offsets = NpzResultsWriterTest.readArray(zip, "curve.offsets.npy", "<i8");
+            Assert.assertEquals(0L, offsets.getLong());
+            Assert.assertEquals(1L, offsets.getLong());
+            Assert.assertEquals(1L, offsets.getLong());
+        }
+    }
+
+    /**
+     * Test a column cannot take the name of the arrays of a list column.
+     *
+     * @throws Exception
+     *         if error
+     */
+    @Test
+    public void listColumnNames() throws Exception {
+        final File file = this.folder.newFile("names.npz");
+
+        try (final NpzResultsWriter writer = new NpzResultsWriter(file)) {
+            writer.writeHeader(List.of(), List.of("curve", "curve.values"));
+            writer.writeRow(List.of(), Arrays.asList(new double[] { 1d }, 2d));
+        }
+
+        try (final ZipFile zip = new ZipFile(file)) {
+            Assert.assertEquals(List.of("curve.values.npy", "curve.offsets.npy", "curve.values_1.npy"),
+                    zip.stream().map(ZipEntry::getName).toList());
+        }
+    }
+
+    /**
+     * Checks the header of the given array and returns its data.
+     */
+    private static ByteBuffer readArray(final ZipFile zip, final String name, final String descr) throws Exception {
+        final byte[] content = zip.getInputStream(zip.getEntry(name)).readAllBytes();
+        final ByteBuffer buffer = ByteBuffer.wrap(content).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(8);
+        final int headerLength = buffer.getShort();
+        final String header = new String(content, 10, headerLength, StandardCharsets.US_ASCII);
+        Assert.assertTrue(header, header.contains("'descr': '" + descr + "'"));
+        Assert.assertEquals(0, (10 + headerLength) % 64);
+        buffer.position(10 + headerLength);
+        return buffer;
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.export;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link XlsxResultsWriter}.
+ *
+ * @author Arnaud Trouche - Artenum SARL
+ **/
+public class XlsxResultsWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Test the numbers are written as numeric cells, and that the rows are split across sheets repeating the header.
+     *
+     * @throws Exception
+     *         if error
+     */
+    @Test
+    public void typedCellsAndSheetSplitting() throws Exception {
+        final File file = this.folder.newFile("export.xlsx");
+
+        try (final XlsxResultsWriter writer = new XlsxResultsWriter(file, 3)) {
+            writer.writeHeader(List.of("x"), List.of("y"));
+            writer.writeRow(List.of("1.5"), List.of(2d));
+            writer.writeRow(List.of("a"), Arrays.asList((Object) null));
+            writer.writeRow(List.of("3"), List.of("?"));
+        }
+
+        try (final Workbook workbook = new XSSFWorkbook(file)) {
+            Assert.assertEquals(2, workbook.getNumberOfSheets());
+
+            final Sheet first = workbook.getSheetAt(0);
+            Assert.assertEquals("x", first.getRow(0).getCell(0).getStringCellValue());
+            Assert.assertEquals(CellType.NUMERIC, first.getRow(1).getCell(0).getCellType());
+            Assert.assertEquals(1.5d, first.getRow(1).getCell(0).getNumericCellValue(), 0d);
+            Assert.assertEquals(2d, first.getRow(1).getCell(1).getNumericCellValue(), 0d);
+            Assert.assertEquals("a", first.getRow(2).getCell(0).getStringCellValue());
+            Assert.assertNull(first.getRow(2).getCell(1));
+
+            final Sheet second = workbook.getSheetAt(1);
+            Assert.assertEquals("y", second.getRow(0).getCell(1).getStringCellValue());
+            Assert.assertEquals(3d, second.getRow(1).getCell(0).getNumericCellValue(), 0d);
+            Assert.assertEquals("?", second.getRow(1).getCell(1).getStringCellValue());
+        }
+    }
+
+    /**
+     * Test that an aborted export does not write the workbook.
+     *
+     * @throws Exception
+     *         if error
+     */
+    @Test
+    public void abort() throws Exception {
+        final File file = new File(this.folder.getRoot(), "aborted.xlsx");
+
+        try (final XlsxResultsWriter writer = new XlsxResultsWriter(file, 3)) {
+            writer.writeHeader(List.of("x"), List.of("y"));
+            writer.writeRow(List.of("1.5"), List.of(2d));
+            writer.abort();
+        }
+
+        Assert.assertFalse(file.exists());
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.view;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ColumnarPayloadBuilder}.
+ *
+ * @author Arnaud Trouche - Artenum SARL
+ **/
+public class ColumnarPayloadBuilderTest {
+
+    /**
+     * Test the numeric columns are encoded as base64 floats and the other ones as strings, the missing results of the
+     * pending cases being {@code NaN}.
+     */
+    @Test
+    public void build() {
+        final Object[] x = { "1.5", null, "-2e3" };
+        final Object[] names = { "a", "b\"", null };
+        final Object[] y = { 3.0, 4, "?" };
+
+        final Map<String, IntFunction<Object>> parameters = new LinkedHashMap<>();
+        parameters.put("x", i -> x[i]);
+        parameters.put("name", i -> names[i]);
+        final Map<String, IntFunction<Object>> values = new LinkedHashMap<>();
+        values.put("y", i -> y[i]);
+
+        final ColumnarPayloadBuilder builder = new ColumnarPayloadBuilder();
+        final String payload = builder.build(3, parameters, values);
+        Assert.assertEquals("{\"count\":3,\"x\":{\"x\":{\"type\":\"float64\",\"data\":\""
+                + ColumnarPayloadBuilderTest.encode(1.5, Double.NaN, -2000)
+                + "\"},\"name\":{\"type\":\"string\",\"data\":[\"a\",\"b\\\"\",null]}},\"y\":{\"y\":"
+                + "{\"type\":\"float64\",\"data\":\"" + ColumnarPayloadBuilderTest.encode(3, 4, Double.NaN) + "\"}}}",
+                payload);
+
+        // The buffers are reused
+        Assert.assertEquals(payload, builder.build(3, parameters, values));
+        Assert.assertEquals("{\"count\":0,\"x\":{},\"y\":{}}", builder.build(0, Map.of(), Map.of()));
+    }
+
+    /**
+     * Test the detection of numeric texts.
+     */
+    @Test
+    public void isNumeric() {
+        final String[] numbers = { "1", "-1.5", "+.5", "1.", "1e10", "2.5E-3", " 3 ", "NaN", "-Infinity" };
+        for (final String text : numbers) {
+            Assert.assertTrue(text, ColumnarPayloadBuilder.isNumeric(text));
+        }
+        for (final String text : new String[] { null, "", "-", ".", "e5", "1e", "1.2.3", "abc", "0x10", "Inf" }) {
+            Assert.assertFalse(text, ColumnarPayloadBuilder.isNumeric(text));
+        }
+    }
+
+    private static String encode(final double... values) {
+        final ByteBuffer buffer = ByteBuffer.allocate(values.length * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (final double value : values) {
+            buffer.putDouble(value);
+        }
+        return Base64.getEncoder().encodeToString(buffer.array());
+    }
+}
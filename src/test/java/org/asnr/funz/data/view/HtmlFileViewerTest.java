@@ -51,4 +51,26 @@ public class HtmlFileViewerTest {
         // Check no exception is thrown
         HtmlFileViewer.loadFileContent(new File(binaryUrl.toURI()));
     }
+
+    /**
+     * Test a file bigger than the inline size is not inlined in the template
+     *
+     * @throws URISyntaxException
+     *         if error
+     */
+    @Test
+    public void streamedContent() throws URISyntaxException {
+        final URL textUrl = this.getClass().getResource("/text.txt");
+        Assert.assertNotNull(textUrl);
+        final File textFile = new File(textUrl.toURI());
+
+        final HtmlTemplate template = HtmlTemplate.compile("$$STREAMED$$ $$SIZE$$ [$$CONTENT$$]");
+        final HtmlFileViewer inlineViewer = new HtmlFileViewer(new File("viewer-txt.html"), template, 100L);
+        Assert.assertFalse(inlineViewer.isStreamed(textFile));
+        Assert.assertEquals("false 20 [This is a test file.]", inlineViewer.getContent(textFile));
+
+        final HtmlFileViewer streamedViewer = new HtmlFileViewer(new File("viewer-txt.html"), template, 10L);
+        Assert.assertTrue(streamedViewer.isStreamed(textFile));
+        Assert.assertEquals("true 20 []", streamedViewer.getContent(textFile));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.view;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.asnr.funz.data.view.HtmlVariablesUtils.Variable;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link HtmlTemplate}.
+ *
+ * @author Arnaud Trouche - Artenum SARL
+ **/
+public class HtmlTemplateTest {
+
+    /**
+     * Test the variables are replaced in a single pass, each supplier being called once and only when needed.
+     */
+    @Test
+    public void render() {
+        final HtmlTemplate template = HtmlTemplate.compile("<p>$$NAME$$</p>$$X$$$$Y$$<i>$$NAME$$ $$DIR$$</i>");
+        Assert.assertTrue(template.contains(Variable.PARAMETERS));
+        Assert.assertFalse(template.contains(Variable.CONTENT));
+
+        final AtomicInteger nameCalls = new AtomicInteger();
+        final Map<Variable, Supplier<String>> substitutions = new EnumMap<>(Variable.class);
+        substitutions.put(Variable.NAME, () -> "n" + nameCalls.incrementAndGet());
+        substitutions.put(Variable.PARAMETERS, () -> "[$$Y$$]");
+        substitutions.put(Variable.VALUES, () -> "[1]");
+        substitutions.put(Variable.CONTENT, () -> {
+            throw new AssertionError("Not in the template");
+        });
+
+        Assert.assertEquals("<p>n1</p>[$$Y$$][1]<i>n1 $$DIR$$</i>", template.render(substitutions));
+        Assert.assertEquals(1, nameCalls.get());
+    }
+
+    /**
+     * Test a template without variables.
+     */
+    @Test
+    public void noVariable() {
+        Assert.assertTrue(HtmlTemplate.compile("").isEmpty());
+
+        final HtmlTemplate template = HtmlTemplate.compile("$$ $NAME$$ __BASE_");
+        Assert.assertFalse(template.isEmpty());
+        Assert.assertEquals("$$ $NAME$$ __BASE_", template.render(Map.of()));
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.view;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Base64;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link MappedFileReader}.
+ *
+ * @author Arnaud Trouche - Artenum SARL
+ **/
+public class MappedFileReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Test the bytes are read across the windows.
+     *
+     * @throws IOException
+     *         if error
+     */
+    @Test
+    public void readBytes() throws IOException {
+        final File file = this.folder.newFile("data.bin");
+        final byte[] content = new byte[100];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        Files.write(file.toPath(), content);
+
+        try (final MappedFileReader reader = new MappedFileReader(file, 16, 2, MappedFileReader.MAX_CHUNK_SIZE)) {
+            Assert.assertEquals(100L, reader.getSize());
+            Assert.assertArrayEquals(Arrays.copyOfRange(content, 10, 50),
+                    Base64.getDecoder().decode(reader.readBytes(10L, 40)));
+            Assert.assertArrayEquals(Arrays.copyOfRange(content, 90, 100),
+                    Base64.getDecoder().decode(reader.readBytes(90L, 40)));
+            Assert.assertEquals("", reader.readBytes(200L, 10));
+        }
+    }
+
+    /**
+     * Test the lines are found through the sparse index, whatever the order of the reads.
+     *
+     * @throws IOException
+     *         if error
+     */
+    @Test
+    public void readLines() throws IOException {
+        final File file = this.folder.newFile("log.txt");
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            content.append("line ").append(i).append(i % 2 == 0 ? "\n" : "\r\n");
+        }
+        content.append("\nété");
+        Files.writeString(file.toPath(), content, StandardCharsets.UTF_8);
+
+        try (final MappedFileReader reader = new MappedFileReader(file, 16, 4, MappedFileReader.MAX_CHUNK_SIZE)) {
+            Assert.assertEquals("[\"line 41\",\"line 42\"]", reader.readLines(41L, 2));
+            Assert.assertEquals("[\"line 0\"]", reader.readLines(0L, 1));
+            Assert.assertEquals("[\"line 49\",\"\",\"été\"]", reader.readLines(49L, 10));
+            Assert.assertEquals("[]", reader.readLines(52L, 10));
+            Assert.assertEquals(52L, reader.getLineCount());
+            Assert.assertEquals("[\"line 7\",\"line 8\",\"line 9\"]", reader.readLines(7L, 3));
+        }
+
+        final File empty = this.folder.newFile("empty.txt");
+        try (final MappedFileReader reader = new MappedFileReader(empty)) {
+            Assert.assertEquals(0L, reader.getLineCount());
+            Assert.assertEquals("[]", reader.readLines(0L, 10));
+        }
+    }
+
+    /**
+     * Test that the lines beyond the maximal chunk size are left to the next call, and that a longer line is cut at a
+     * character boundary.
+     *
+     * @throws IOException
+     *         if error
+     */
+    @Test
+    public void readLinesBeyondChunk() throws IOException {
+        final File file = this.folder.newFile("long.txt");
+        Files.writeString(file.toPath(), "line 0\nline 1\nline 2\na" + "é".repeat(15) + "\nend",
+                StandardCharsets.UTF_8);
+
+        try (final MappedFileReader reader = new MappedFileReader(file, 16, 2, 20)) {
+            Assert.assertEquals("[\"line 0\",\"line 1\"]", reader.readLines(0L, 5));
+            Assert.assertEquals("[\"line 2\"]", reader.readLines(2L, 3));
+            Assert.assertEquals("[\"a" + "é".repeat(9) + "\"]", reader.readLines(3L, 2));
+            Assert.assertEquals("[\"end\"]", reader.readLines(4L, 2));
+        }
+    }
+}
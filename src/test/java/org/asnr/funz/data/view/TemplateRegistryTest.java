@@ -0,0 +1,80 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.data.view;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.asnr.funz.data.view.HtmlVariablesUtils.Variable;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link TemplateRegistry}.
+ *
+ * @author Arnaud Trouche - Artenum SARL
+ **/
+public class TemplateRegistryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Test the templates are read once, then read again once modified.
+     *
+     * @throws IOException
+     *         if error
+     * @throws InterruptedException
+     *         if interrupted
+     */
+    @Test
+    public void reloadModifiedTemplate() throws IOException, InterruptedException {
+        final File template = this.folder.newFile("b.html");
+        Files.writeString(template.toPath(), "<p>first</p>");
+        this.folder.newFile("a.html");
+        this.folder.newFile("c.txt");
+
+        try (final TemplateRegistry registry = new TemplateRegistry()) {
+            final File root = this.folder.getRoot().getAbsoluteFile();
+            Assert.assertEquals(List.of(new File(root, "a.html"), new File(root, "b.html")),
+                    registry.getTemplateFiles(this.folder.getRoot()));
+            Assert.assertTrue(registry.getTemplateFiles(null).isEmpty());
+
+            final HtmlTemplate first = registry.getTemplate(template);
+            Assert.assertSame(first, registry.getTemplate(template));
+            Assert.assertEquals("<p>first</p>", first.render(new EnumMap<>(Variable.class)));
+
+            final CountDownLatch changed = new CountDownLatch(1);
+            final TemplateRegistry.TemplateListener listener = file -> {
+                if (file.equals(template.getAbsoluteFile())) {
+                    changed.countDown();
+                }
+            };
+            registry.addTemplateListener(listener);
+            Files.writeString(template.toPath(), "<p>second</p>");
+
+            Assert.assertTrue(changed.await(30, TimeUnit.SECONDS));
+            Assert.assertEquals("<p>second</p>", registry.getTemplate(template).render(new EnumMap<>(Variable.class)));
+            registry.removeTemplateListener(listener);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Project        : FunzDataView
+ * Website        : https://github.com/Funz/FunzDataView
+ * Copyright      : © ASNR
+ *                  31 Avenue de la Division Leclerc
+ *                  92260 Fontenay-aux-Roses, France
+ *                  https://www.asnr.fr
+ * Licence        : cf. LICENSE
+ * Developed By   : Artenum SARL
+ * Authors        : Arnaud Trouche
+ *                  Nicolas Chabalier
+ *                  Julien Forest
+ * Contract       : contract N°50000976 - order N°34007261
+ */
+package org.asnr.funz.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link ResultsCache}.
+ *
+ * @author Arnaud Trouche - Artenum SARL
+ **/
+public class ResultsCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Test the outputs written in the cache are read back, and that the cache is ignored once the cases file changes.
+     *
+     * @throws IOException
+     *         if error
+     */
+    @Test
+    public void writeAndRead() throws IOException {
+        final File casesFile = this.folder.newFile("cases.xml");
+        Files.writeString(casesFile.toPath(), "<CASES></CASES>");
+
+        final Map<String, Object> first = new HashMap<>();
+        first.put("x", 1.5d);
+        first.put("curve", new double[] { 1d, 2d, 3d });
+        first.put("state", "done");
+        final Map<String, Object> second = new HashMap<>();
+        second.put("x", null);
+        second.put("state", "failed");
+
+        ResultsCache.write(casesFile, ResultsCache.Key.of(casesFile), List.of(first, second, Map.of()));
+
+        final Optional<ResultsCache> cache = ResultsCache.read(casesFile);
+        Assert.assertTrue(cache.isPresent());
+        Assert.assertEquals(3, cache.get().size());
+
+        final Map<String, Object> readFirst = cache.get().getOutputs(0);
+        Assert.assertEquals(1.5d, readFirst.get("x"));
+        Assert.assertArrayEquals(new double[] { 1d, 2d, 3d }, (double[]) readFirst.get("curve"), 0d);
+        Assert.assertEquals("done", readFirst.get("state"));
+
+        final Map<String, Object> readSecond = cache.get().getOutputs(1);
+        Assert.assertTrue(readSecond.containsKey("x"));
+        Assert.assertNull(readSecond.get("x"));
+        Assert.assertFalse(readSecond.containsKey("curve"));
+        Assert.assertEquals("failed", readSecond.get("state"));
+
+        Assert.assertTrue(cache.get().getOutputs(2).isEmpty());
+
+        // Any change of the cases file invalidates the cache
+        Files.writeString(casesFile.toPath(), "<CASES><CASE/></CASES>");
+        Assert.assertTrue(ResultsCache.read(casesFile).isEmpty());
+    }
+
+    /**
+     * Test a new cache is written while the previous one is still read, only the latest one being kept.
+     *
+     * @throws IOException
+     *         if error
+     */
+    @Test
+    public void writeWhileMapped() throws IOException {
+        final File casesFile = this.folder.newFile("cases.xml");
+        Files.writeString(casesFile.toPath(), "<CASES></CASES>");
+        ResultsCache.write(casesFile, ResultsCache.Key.of(casesFile), List.of(Map.of("x", 1d)));
+        final Optional<ResultsCache> previousCache = ResultsCache.read(casesFile);
+        Assert.assertTrue(previousCache.isPresent());
+
+        Files.writeString(casesFile.toPath(), "<CASES><CASE/></CASES>");
+        ResultsCache.write(casesFile, ResultsCache.Key.of(casesFile), List.of(Map.of("x", 2d)));
+
+        Assert.assertEquals(1d, previousCache.get().getOutputs(0).get("x"));
+        Assert.assertEquals(2d, ResultsCache.read(casesFile).orElseThrow().getOutputs(0).get("x"));
+        Assert.assertEquals(1, ResultsCache.getCacheFiles(casesFile).size());
+    }
+
+    /**
+     * Test a cache written for outputs read before the cases file changed is not used.
+     *
+     * @throws IOException
+     *         if error
+     */
+    @Test
+    public void keyTakenBeforeReading() throws IOException {
+        final File casesFile = this.folder.newFile("cases.xml");
+        Files.writeString(casesFile.toPath(), "<CASES></CASES>");
+        final ResultsCache.Key key = ResultsCache.Key.of(casesFile);
+
+        // Cases added by a running calculation while the previous ones are read
+        Files.writeString(casesFile.toPath(), "<CASES><CASE/></CASES>");
+        ResultsCache.write(casesFile, key, List.of());
+
+        Assert.assertTrue(ResultsCache.read(casesFile).isEmpty());
+    }
+}